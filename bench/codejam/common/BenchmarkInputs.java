@@ -0,0 +1,86 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Input datasets for JMH benchmarks.
+ *
+ * Each benchmark has a "dataset" parameter, which is either the path of an
+ * input file relative to the resources directory, or "random-n" to use a
+ * synthetic input generated by the benchmark itself with size n. Generators
+ * write plain text in the input format of the problem, so that both kinds
+ * of dataset go through the same parser. Synthetic inputs always use the same
+ * seed, thus they are the same across runs and numbers can be compared.
+ *
+ * Benchmarks must be run from the project directory, like the solutions.
+ *
+ * @author Salvo Isaja
+ */
+public final class BenchmarkInputs {
+
+    private static final String RANDOM_PREFIX = "random-";
+    private static final long SEED = 2017;
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Opens the specified dataset. For synthetic datasets, generator is called
+     * with a seeded Random and the requested size, and must return the whole input.
+     */
+    public static FastScanner open(String dataset, BiFunction<Random, Integer, String> generator) throws FileNotFoundException {
+        if (dataset.startsWith(RANDOM_PREFIX)) {
+            int size = Integer.parseInt(dataset.substring(RANDOM_PREFIX.length()));
+            String input = generator.apply(new Random(SEED), size);
+            return new FastScanner(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)));
+        }
+        return new FastScanner(new FileInputStream("resources/" + dataset));
+    }
+
+    /** Reads the test case count and all test cases using the parser of a solution. */
+    public static <T> List<T> parseAll(CaseSolver<T, ?> solver, FastScanner scanner) {
+        int testCount = scanner.nextInt();
+        List<T> tests = new ArrayList<>(testCount);
+        for (int testNumber = 1; testNumber <= testCount; testNumber++) {
+            tests.add(solver.parseCase(testNumber, scanner));
+        }
+        return tests;
+    }
+
+    /** Returns a random integer between min and max inclusive. */
+    public static long nextLong(Random random, long min, long max) {
+        return min + (long) (random.nextDouble() * (max - min + 1));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam2017.finals;
+
+import codejam.common.BenchmarkInputs;
+import codejam.common.FastScanner;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks findLongestStraight of DiceStraight. Since it assigns dice
+ * to values while running, test cases are rebuilt from their die faces
+ * before each invocation. Synthetic datasets have 10 test cases with the
+ * specified count of dice, with face values in a range twice as large
+ * as the die count, so that long straights are likely.
+ *
+ * @author Salvo Isaja
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class DiceStraightBenchmark {
+
+    private static final int SYNTHETIC_TEST_COUNT = 10;
+    private static final int FACE_COUNT = 6;
+
+    @Param({"codejam2017/finals/A-small-practice.in", "random-100", "random-5000"})
+    public String dataset;
+
+    private final List<int[][]> testFaces = new ArrayList<>();
+    private List<DiceStraight.Test> tests;
+
+    static String generate(Random random, int dieCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(SYNTHETIC_TEST_COUNT).append('\n');
+        for (int t = 0; t < SYNTHETIC_TEST_COUNT; t++) {
+            sb.append(dieCount).append('\n');
+            for (int d = 0; d < dieCount; d++) {
+                for (int i = 0; i < FACE_COUNT; i++) {
+                    if (i > 0) sb.append(' ');
+                    sb.append(1 + random.nextInt(2 * dieCount));
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        try (FastScanner scanner = BenchmarkInputs.open(dataset, DiceStraightBenchmark::generate)) {
+            int testCount = scanner.nextInt();
+            for (int t = 0; t < testCount; t++) {
+                int[][] faces = new int[scanner.nextInt()][FACE_COUNT];
+                for (int[] dieFaces : faces) {
+                    for (int i = 0; i < FACE_COUNT; i++) dieFaces[i] = scanner.nextInt();
+                }
+                testFaces.add(faces);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareTests() {
+        tests = new ArrayList<>(testFaces.size());
+        for (int[][] faces : testFaces) {
+            DiceStraight.Test test = new DiceStraight.Test();
+            for (int d = 0; d < faces.length; d++) {
+                DiceStraight.Die die = new DiceStraight.Die(d + 1);
+                System.arraycopy(faces[d], 0, die.values, 0, FACE_COUNT);
+                test.dice.add(die);
+            }
+            test.prepareValues();
+            tests.add(test);
+        }
+    }
+
+    @Benchmark
+    public void findLongestStraight(Blackhole bh) {
+        for (DiceStraight.Test test : tests) {
+            bh.consume(test.findLongestStraight());
+        }
+    }
+}
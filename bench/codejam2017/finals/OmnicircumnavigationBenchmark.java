@@ -0,0 +1,112 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam2017.finals;
+
+import codejam.common.BenchmarkInputs;
+import codejam.common.FastScanner;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks scanHull and scanPlanes of Omnicircumnavigation. Synthetic
+ * datasets have 10 test cases with the specified count of points. In even
+ * cases points are uniformly scattered around the origin, thus the answer is
+ * almost always YES after testing a few planes. In odd cases points lie above
+ * the xy plane, thus the answer is NO, the worst case for both algorithms.
+ * Running with "-prof gc" shows allocations only in the setup of each scan,
+ * proportional to the count of points.
+ *
+ * @author Salvo Isaja
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class OmnicircumnavigationBenchmark {
+
+    private static final int SYNTHETIC_TEST_COUNT = 10;
+    private static final long MAX_COORDINATE = 1000000;
+
+    @Param({"codejam2017/finals/D-small-practice.in", "random-50", "random-1000"})
+    public String dataset;
+
+    private List<Omnicircumnavigation.Test> tests;
+
+    static String generate(Random random, int pointCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(SYNTHETIC_TEST_COUNT).append('\n');
+        for (int t = 0; t < SYNTHETIC_TEST_COUNT; t++) {
+            sb.append(pointCount).append('\n');
+            for (int i = 0; i < pointCount; i++) {
+                long x, y, z;
+                do {
+                    x = BenchmarkInputs.nextLong(random, -MAX_COORDINATE, MAX_COORDINATE);
+                    y = BenchmarkInputs.nextLong(random, -MAX_COORDINATE, MAX_COORDINATE);
+                    z = BenchmarkInputs.nextLong(random, t % 2 == 0 ? -MAX_COORDINATE : 1, MAX_COORDINATE);
+                } while (x == 0 && y == 0 && z == 0);
+                sb.append(x).append(' ').append(y).append(' ').append(z).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        try (FastScanner scanner = BenchmarkInputs.open(dataset, OmnicircumnavigationBenchmark::generate)) {
+            tests = BenchmarkInputs.parseAll(new Omnicircumnavigation(), scanner);
+        }
+    }
+
+    @Benchmark
+    public void scanHull(Blackhole bh) {
+        for (Omnicircumnavigation.Test test : tests) {
+            bh.consume(Omnicircumnavigation.Test.scanHull(test.points));
+        }
+    }
+
+    @Benchmark
+    public void scanPlanes(Blackhole bh) {
+        for (Omnicircumnavigation.Test test : tests) {
+            bh.consume(Omnicircumnavigation.Test.scanPlanes(test.points));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam2017.finals;
+
+import codejam.common.BenchmarkInputs;
+import codejam.common.FastScanner;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks findMaximum of Operation. Synthetic datasets have 10 test cases
+ * with the specified count of cards, with small values like the large dataset
+ * so that the cost is dominated by the growth of numerators and denominators.
+ *
+ * @author Salvo Isaja
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class OperationBenchmark {
+
+    private static final int SYNTHETIC_TEST_COUNT = 10;
+    private static final int MAX_VALUE = 1000;
+    private static final String OPS = "+-*/";
+
+    @Param({"codejam2017/finals/B-small-practice.in", "codejam2017/finals/B-large-practice.in", "random-1000"})
+    public String dataset;
+
+    private List<Operation.Test> tests;
+
+    static String generate(Random random, int cardCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(SYNTHETIC_TEST_COUNT).append('\n');
+        for (int t = 0; t < SYNTHETIC_TEST_COUNT; t++) {
+            sb.append(BenchmarkInputs.nextLong(random, -MAX_VALUE, MAX_VALUE)).append(' ').append(cardCount).append('\n');
+            for (int i = 0; i < cardCount; i++) {
+                char op = OPS.charAt(random.nextInt(OPS.length()));
+                long value;
+                do {
+                    value = BenchmarkInputs.nextLong(random, -MAX_VALUE, MAX_VALUE);
+                } while (op == '/' && value == 0);
+                sb.append(op).append(' ').append(value).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        try (FastScanner scanner = BenchmarkInputs.open(dataset, OperationBenchmark::generate)) {
+            tests = BenchmarkInputs.parseAll(new Operation(), scanner);
+        }
+    }
+
+    @Benchmark
+    public void findMaximum(Blackhole bh) {
+        for (Operation.Test test : tests) {
+            bh.consume(test.findMaximum());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam2017.finals;
+
+import codejam.common.BenchmarkInputs;
+import codejam.common.FastScanner;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks findSpanningTreeCount of SpanningPlanning, that is the
+ * determinant of the Laplacian matrix of a graph. The C-precalc dataset
+ * contains all precalculated graphs, one per line as spanning tree count,
+ * node count, edge count and edge indices. Synthetic datasets use the same
+ * format, with 1000 graphs having the specified count of nodes, each with
+ * half of the possible edges.
+ *
+ * @author Salvo Isaja
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SpanningPlanningBenchmark {
+
+    private static final int SYNTHETIC_GRAPH_COUNT = 1000;
+
+    @Param({"codejam2017/finals/C-precalc.in", "random-9", "random-22"})
+    public String dataset;
+
+    private final SpanningPlanning planner = new SpanningPlanning();
+    private int[] nodeCounts;
+    private BitSet[] edges;
+
+    static String generate(Random random, int nodeCount) {
+        StringBuilder sb = new StringBuilder();
+        int maxEdgeCount = nodeCount * (nodeCount - 1) / 2;
+        for (int g = 0; g < SYNTHETIC_GRAPH_COUNT; g++) {
+            sb.append(0).append('\t').append(nodeCount).append('\t').append(maxEdgeCount / 2);
+            BitSet bs = new BitSet(maxEdgeCount);
+            while (bs.cardinality() < maxEdgeCount / 2) bs.set(random.nextInt(maxEdgeCount));
+            for (int i = bs.nextSetBit(0); i >= 0; i = bs.nextSetBit(i + 1)) sb.append('\t').append(i);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        List<Integer> nodeCountList = new ArrayList<>();
+        List<BitSet> edgeList = new ArrayList<>();
+        try (FastScanner scanner = BenchmarkInputs.open(dataset, SpanningPlanningBenchmark::generate)) {
+            while (scanner.hasNext()) {
+                scanner.nextInt(); // spanning tree count
+                nodeCountList.add(scanner.nextInt());
+                int edgeCount = scanner.nextInt();
+                BitSet bs = new BitSet();
+                for (int i = 0; i < edgeCount; i++) bs.set(scanner.nextInt());
+                edgeList.add(bs);
+            }
+        }
+        nodeCounts = nodeCountList.stream().mapToInt(Integer::intValue).toArray();
+        edges = edgeList.toArray(new BitSet[0]);
+    }
+
+    @Benchmark
+    public void findSpanningTreeCount(Blackhole bh) {
+        for (int i = 0; i < nodeCounts.length; i++) {
+            bh.consume(planner.findSpanningTreeCount(nodeCounts[i], edges[i]));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam2017.finals;
+
+import codejam.common.BenchmarkInputs;
+import codejam.common.FastScanner;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the Expander of TeleportersLarge, including the construction
+ * of its distance matrices. Synthetic datasets have 10 test cases with the
+ * specified count of teleporters, scattered in a cube so that many of them
+ * are needed to reach Care-a-lot.
+ *
+ * The relax benchmarks compare one relaxation of all bubbles of the largest
+ * test case against the original loop over a long[][] matrix, which skipped
+ * the teleporter itself and selected radii with conditional expressions.
+ *
+ * @author Salvo Isaja
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class TeleportersLargeBenchmark {
+
+    private static final int SYNTHETIC_TEST_COUNT = 10;
+    private static final long MAX_COORDINATE = 1000;
+
+    @Param({"codejam2017/finals/F-small-practice.in", "random-10", "random-150"})
+    public String dataset;
+
+    private List<TeleportersLarge.Test> tests;
+    private int n;
+    private long[][] matrix;
+    private long[] flatMatrix;
+    private long[] prevMinRadii;
+    private long[] prevMaxRadii;
+    private long[] minRadii;
+    private long[] maxRadii;
+
+    static String generate(Random random, int teleporterCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(SYNTHETIC_TEST_COUNT).append('\n');
+        for (int t = 0; t < SYNTHETIC_TEST_COUNT; t++) {
+            sb.append(teleporterCount).append('\n');
+            // Thundera, Care-a-lot, then the teleporters
+            for (int i = 0; i < teleporterCount + 2; i++) {
+                for (int c = 0; c < 3; c++) {
+                    if (c > 0) sb.append(' ');
+                    sb.append(BenchmarkInputs.nextLong(random, -MAX_COORDINATE, MAX_COORDINATE));
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        try (FastScanner scanner = BenchmarkInputs.open(dataset, TeleportersLargeBenchmark::generate)) {
+            tests = BenchmarkInputs.parseAll(new TeleportersLarge(), scanner);
+        }
+        TeleportersLarge.Test largest = tests.get(0);
+        for (TeleportersLarge.Test test : tests) {
+            if (test.teleporterPoints.size() > largest.teleporterPoints.size()) largest = test;
+        }
+        List<TeleportersLarge.Point> points = largest.teleporterPoints;
+        n = points.size();
+        matrix = new long[n][n];
+        flatMatrix = new long[n * n];
+        prevMinRadii = new long[n];
+        prevMaxRadii = new long[n];
+        minRadii = new long[n];
+        maxRadii = new long[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = points.get(i).distance(points.get(j));
+                flatMatrix[i * n + j] = i == j ? TeleportersLarge.Expander.SELF_DISTANCE : matrix[i][j];
+            }
+            // Radii as large as distances, when branches are hardest to predict
+            long d = largest.thundera.distance(points.get(i));
+            prevMinRadii[i] = d / 2;
+            prevMaxRadii[i] = d * 2;
+        }
+    }
+
+    @Benchmark
+    public void fillSpace(Blackhole bh) {
+        for (TeleportersLarge.Test test : tests) {
+            bh.consume(new TeleportersLarge.Expander(test).fillSpace());
+        }
+    }
+
+    @Benchmark
+    public void relaxBaseline(Blackhole bh) {
+        for (int i = 0; i < n; i++) {
+            long max = 0;
+            long min = Long.MAX_VALUE;
+            long[] ithTeleporterDistances = matrix[i];
+            for (int j = 0; j < ithTeleporterDistances.length; j++) {
+                if (j == i) continue;
+                long prevMinRadius = prevMinRadii[j];
+                long prevMaxRadius = prevMaxRadii[j];
+                long cd = matrix[i][j];
+                long minRadius = cd > prevMaxRadius ? cd - prevMaxRadius
+                        : cd < prevMinRadius ? prevMinRadius - cd
+                        : 0;
+                if (minRadius < min) min = minRadius;
+                long maxRadius = cd + prevMaxRadius;
+                if (maxRadius > max) max = maxRadius;
+            }
+            minRadii[i] = min;
+            maxRadii[i] = max;
+        }
+        bh.consume(minRadii);
+        bh.consume(maxRadii);
+    }
+
+    @Benchmark
+    public void relax(Blackhole bh) {
+        for (int i = 0; i < n; i++) {
+            TeleportersLarge.Expander.relax(flatMatrix, n, i, prevMinRadii, prevMaxRadii, minRadii, maxRadii);
+        }
+        bh.consume(minRadii);
+        bh.consume(maxRadii);
+    }
+}
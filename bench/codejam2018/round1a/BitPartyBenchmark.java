@@ -0,0 +1,120 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam2018.round1a;
+
+import codejam.common.BenchmarkInputs;
+import codejam.common.FastScanner;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the binary search of BitParty. Synthetic datasets have 10 test
+ * cases with the specified count of cashiers and values up to the limits
+ * of the large dataset.
+ *
+ * @author Salvo Isaja
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BitPartyBenchmark {
+
+    private static final int SYNTHETIC_TEST_COUNT = 10;
+    private static final int MAX_VALUE = 1000000000;
+
+    private static class Party {
+        final int robotCount;
+        final int bitCount;
+        final BitParty.Cashier[] cashiers;
+
+        Party(int robotCount, int bitCount, BitParty.Cashier[] cashiers) {
+            this.robotCount = robotCount;
+            this.bitCount = bitCount;
+            this.cashiers = cashiers;
+        }
+    }
+
+    @Param({"codejam2018/round1a/BitParty-1.in", "random-100", "random-1000"})
+    public String dataset;
+
+    private final List<Party> parties = new ArrayList<>();
+
+    static String generate(Random random, int cashierCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(SYNTHETIC_TEST_COUNT).append('\n');
+        for (int t = 0; t < SYNTHETIC_TEST_COUNT; t++) {
+            int robotCount = 1 + random.nextInt(cashierCount);
+            sb.append(robotCount).append(' ').append(1 + random.nextInt(MAX_VALUE)).append(' ').append(cashierCount).append('\n');
+            for (int i = 0; i < cashierCount; i++) {
+                sb.append(1 + random.nextInt(MAX_VALUE)).append(' ')
+                        .append(1 + random.nextInt(MAX_VALUE)).append(' ')
+                        .append(1 + random.nextInt(MAX_VALUE)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        try (FastScanner scanner = BenchmarkInputs.open(dataset, BitPartyBenchmark::generate)) {
+            int testCount = scanner.nextInt();
+            for (int t = 0; t < testCount; t++) {
+                int robotCount = scanner.nextInt();
+                int bitCount = scanner.nextInt();
+                BitParty.Cashier[] cashiers = new BitParty.Cashier[scanner.nextInt()];
+                for (int i = 0; i < cashiers.length; i++) {
+                    cashiers[i] = new BitParty.Cashier(scanner.nextInt(), scanner.nextInt(), scanner.nextInt());
+                }
+                parties.add(new Party(robotCount, bitCount, cashiers));
+            }
+        }
+    }
+
+    @Benchmark
+    public void solve(Blackhole bh) {
+        for (Party p : parties) {
+            bh.consume(BitParty.solve(p.robotCount, p.bitCount, p.cashiers));
+        }
+    }
+}
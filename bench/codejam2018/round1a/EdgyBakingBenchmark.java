@@ -0,0 +1,123 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam2018.round1a;
+
+import codejam.common.BenchmarkInputs;
+import codejam.common.FastScanner;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the knapsack of EdgyBaking, with items and capacity derived
+ * from cookies like solve does. Synthetic datasets have 10 test cases with
+ * the specified count of cookies of any size, and the largest target
+ * perimeter, thus the largest knapsack capacity.
+ *
+ * @author Salvo Isaja
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class EdgyBakingBenchmark {
+
+    private static final int SYNTHETIC_TEST_COUNT = 10;
+    private static final int MAX_SIDE = 250;
+
+    private static class Knapsack {
+        final int capacity;
+        final int[] weights;
+        final double[] values;
+
+        Knapsack(int capacity, int[] weights, double[] values) {
+            this.capacity = capacity;
+            this.weights = weights;
+            this.values = values;
+        }
+    }
+
+    @Param({"codejam2018/round1a/EdgyBaking-1.in", "random-10", "random-100"})
+    public String dataset;
+
+    private final List<Knapsack> knapsacks = new ArrayList<>();
+
+    static String generate(Random random, int cookieCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(SYNTHETIC_TEST_COUNT).append('\n');
+        for (int t = 0; t < SYNTHETIC_TEST_COUNT; t++) {
+            sb.append(cookieCount).append(' ').append(EdgyBaking.MAX_POSSIBLE_PERIMETER).append('\n');
+            for (int i = 0; i < cookieCount; i++) {
+                sb.append(1 + random.nextInt(MAX_SIDE)).append(' ').append(1 + random.nextInt(MAX_SIDE)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Setup
+    public void setup() throws FileNotFoundException {
+        try (FastScanner scanner = BenchmarkInputs.open(dataset, EdgyBakingBenchmark::generate)) {
+            int testCount = scanner.nextInt();
+            for (int t = 0; t < testCount; t++) {
+                int cookieCount = scanner.nextInt();
+                int targetPerimeter = Math.min(scanner.nextInt(), EdgyBaking.MAX_POSSIBLE_PERIMETER);
+                int[] shortestCuts = new int[cookieCount];
+                double[] longestCuts = new double[cookieCount];
+                for (int i = 0; i < cookieCount; i++) {
+                    int w = scanner.nextInt();
+                    int h = scanner.nextInt();
+                    targetPerimeter -= (w + h) * 2;
+                    shortestCuts[i] = 2 * Math.min(w, h);
+                    longestCuts[i] = 2 * Math.sqrt(w * w + h * h);
+                }
+                knapsacks.add(new Knapsack(targetPerimeter, shortestCuts, longestCuts));
+            }
+        }
+    }
+
+    @Benchmark
+    public void knapsack(Blackhole bh) {
+        for (Knapsack k : knapsacks) {
+            bh.consume(EdgyBaking.knapsack(k.capacity, k.weights, k.values));
+        }
+    }
+}
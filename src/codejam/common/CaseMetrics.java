@@ -0,0 +1,216 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in per test case metrics: wall time, CPU time and bytes allocated
+ * by the thread solving each test case, as reported by ThreadMXBean.
+ *
+ * Metrics are enabled by setting the codejam.metrics system property to
+ * the path of a sidecar file, written when the JVM exits, in JSON format
+ * if its name ends with .json and in CSV format otherwise. A latency
+ * summary (p50, p99 and max wall time) of each dataset is also printed
+ * to System.err. For example:
+ *   java -Dcodejam.metrics=build/metrics.csv -cp dist/codejam.jar codejam2017.finals.Operation < B-large-practice.in
+ *
+ * No solver needs to be changed. ParallelRunner measures each test case
+ * on the worker thread solving it. For all other solvers, FastWriter
+ * measures the time from the end of the previous output line to each
+ * "Case #n:" prefix, which covers solving a test case, as well as parsing
+ * it if the solver reads one test case at a time. Solvers creating the writer
+ * before reading all test cases have them parsed in the first test case.
+ * When metrics are disabled, all this costs a null check per line.
+ *
+ * @author Salvo Isaja
+ */
+public final class CaseMetrics {
+
+    public static final String PROPERTY = "codejam.metrics";
+    private static final String DEFAULT_DATASET = "stdin";
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final CaseMetrics INSTANCE = create();
+
+    private static class Sample {
+        final int testNumber;
+        final long wallNanos;
+        final long cpuNanos;
+        final long allocatedBytes;
+
+        Sample(int testNumber, long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.testNumber = testNumber;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    private final File sidecar;
+    /** Samples grouped by dataset, in insertion order. */
+    private final Map<String, List<Sample>> samples = new LinkedHashMap<>();
+    private List<Sample> currentSamples;
+
+    private CaseMetrics(File sidecar) {
+        this.sidecar = sidecar;
+        setDataset(DEFAULT_DATASET);
+    }
+
+    private static CaseMetrics create() {
+        String path = System.getProperty(PROPERTY);
+        if (path == null || path.isEmpty()) return null;
+        CaseMetrics metrics = new CaseMetrics(new File(path));
+        Runtime.getRuntime().addShutdownHook(new Thread(metrics::finish, "CaseMetrics"));
+        return metrics;
+    }
+
+    /** Returns the metrics collector, or null if metrics are disabled. */
+    public static CaseMetrics get() {
+        return INSTANCE;
+    }
+
+    /** Returns the wall time, CPU time and allocated bytes of the current thread so far. */
+    public static long[] sample() {
+        return new long[] {
+            System.nanoTime(),
+            THREADS.getCurrentThreadCpuTime(),
+            THREADS.getThreadAllocatedBytes(Thread.currentThread().getId())
+        };
+    }
+
+    /**
+     * Records a test case solved by the current thread since the begin sample,
+     * and returns a new sample, to be used as begin of the next test case.
+     */
+    public long[] record(int testNumber, long[] begin) {
+        long[] end = sample();
+        Sample s = new Sample(testNumber, end[0] - begin[0], end[1] - begin[1], end[2] - begin[2]);
+        synchronized (this) {
+            currentSamples.add(s);
+        }
+        return end;
+    }
+
+    /** Groups the following samples under the specified dataset name, such as an input file. */
+    public synchronized void setDataset(String dataset) {
+        currentSamples = samples.computeIfAbsent(dataset, k -> new ArrayList<>());
+    }
+
+    /** Returns the wall time in nanoseconds of a fraction q of samples, sorted ascending, using the nearest rank. */
+    private static long percentile(long[] sorted, double q) {
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static long[] sortedWallTimes(List<Sample> list) {
+        long[] times = new long[list.size()];
+        for (int i = 0; i < times.length; i++) times[i] = list.get(i).wallNanos;
+        Arrays.sort(times);
+        return times;
+    }
+
+    /** Returns p50, p99 and max wall time in nanoseconds of the samples of a dataset, or null if none. */
+    public synchronized long[] latencies(String dataset) {
+        List<Sample> list = samples.get(dataset);
+        if (list == null || list.isEmpty()) return null;
+        long[] times = sortedWallTimes(list);
+        return new long[] { percentile(times, 0.5), percentile(times, 0.99), times[times.length - 1] };
+    }
+
+    private static String summary(String dataset, List<Sample> list) {
+        Sample slowest = list.get(0);
+        for (Sample s : list) {
+            if (s.wallNanos > slowest.wallNanos) slowest = s;
+        }
+        long[] times = sortedWallTimes(list);
+        return String.format("%s: %d cases, p50 %.3f ms, p99 %.3f ms, max %.3f ms (Case #%d)",
+                dataset, list.size(), percentile(times, 0.5) / 1e6, percentile(times, 0.99) / 1e6,
+                slowest.wallNanos / 1e6, slowest.testNumber);
+    }
+
+    private static String jsonString(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void writeCsv(PrintWriter pw) {
+        pw.println("dataset,case,wallNanos,cpuNanos,allocatedBytes");
+        samples.forEach((dataset, list) -> {
+            for (Sample s : list) {
+                pw.println("\"" + dataset.replace("\"", "\"\"") + "\"," + s.testNumber + ',' + s.wallNanos + ',' + s.cpuNanos + ',' + s.allocatedBytes);
+            }
+        });
+    }
+
+    private void writeJson(PrintWriter pw) {
+        pw.println("[");
+        String datasetSeparator = "";
+        for (Map.Entry<String, List<Sample>> e : samples.entrySet()) {
+            List<Sample> list = e.getValue();
+            if (list.isEmpty()) continue;
+            long[] times = sortedWallTimes(list);
+            pw.print(datasetSeparator);
+            pw.println("  {");
+            pw.println("    \"dataset\": " + jsonString(e.getKey()) + ",");
+            pw.println("    \"p50Nanos\": " + percentile(times, 0.5) + ",");
+            pw.println("    \"p99Nanos\": " + percentile(times, 0.99) + ",");
+            pw.println("    \"maxNanos\": " + times[times.length - 1] + ",");
+            pw.println("    \"cases\": [");
+            for (int i = 0; i < list.size(); i++) {
+                Sample s = list.get(i);
+                pw.print("      {\"case\": " + s.testNumber + ", \"wallNanos\": " + s.wallNanos
+                        + ", \"cpuNanos\": " + s.cpuNanos + ", \"allocatedBytes\": " + s.allocatedBytes + "}");
+                pw.println(i < list.size() - 1 ? "," : "");
+            }
+            pw.println("    ]");
+            pw.print("  }");
+            datasetSeparator = ",\n";
+        }
+        pw.println();
+        pw.println("]");
+    }
+
+    /** Writes the sidecar file and prints latency summaries, when the JVM exits. */
+    private synchronized void finish() {
+        File dir = sidecar.getAbsoluteFile().getParentFile();
+        if (dir != null) dir.mkdirs();
+        try (PrintWriter pw = new PrintWriter(sidecar, "US-ASCII")) {
+            if (sidecar.getName().endsWith(".json")) writeJson(pw); else writeCsv(pw);
+        } catch (IOException e) {
+            System.err.println("Cannot write metrics to " + sidecar + ": " + e);
+        }
+        samples.forEach((dataset, list) -> {
+            if (!list.isEmpty()) System.err.println(summary(dataset, list));
+        });
+    }
+}
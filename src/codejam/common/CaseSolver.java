@@ -0,0 +1,66 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam.common;
+
+/**
+ * A solution whose test cases are independent of each other, so that they
+ * can be solved in parallel by a ParallelRunner.
+ *
+ * Parsing and printing are each called from a single thread, in case order,
+ * thus they may use the scanner and the writer freely. They are not always
+ * called from the same thread, though: in pipelined mode parsing runs on
+ * a reader thread of its own, concurrently with solving and printing.
+ * Thus parseCase must only touch the scanner and the test case it returns,
+ * without storing state in the solver, and the same holds for printResult
+ * with the writer. Solving is called concurrently from worker threads, thus
+ * it must not touch any mutable state shared between test cases.
+ *
+ * @param <T> a parsed test case
+ * @param <R> the result of a test case
+ * @author Salvo Isaja
+ */
+public interface CaseSolver<T, R> {
+
+    /** Reads the next test case, numbered from 1, from the input. */
+    T parseCase(int testNumber, FastScanner scanner);
+
+    /**
+     * Estimates the relative cost of solving a test case, such as its size
+     * raised to the complexity of the algorithm. Cases with the highest cost
+     * are solved first, so that a huge case does not start last and keep
+     * a single thread busy while the others are idle. Only the order matters.
+     * By default, all cases cost the same and are solved in input order.
+     */
+    default long estimateCost(T test) {
+        return 0;
+    }
+
+    /** Solves a test case previously returned by parseCase. */
+    R solveCase(T test);
+
+    /** Prints the result of a test case, including the "Case #n:" prefix and the line terminator. */
+    void printResult(int testNumber, R result, FastWriter out);
+}
@@ -0,0 +1,245 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * A whitespace-delimited token reader, meant as a drop-in replacement
+ * for java.util.Scanner in all solvers.
+ *
+ * Scanner matches every token against a regular expression and builds
+ * a String for it before converting it to a number, which dominates the
+ * running time on large datasets. This reader pulls raw bytes into a
+ * reusable buffer and converts numbers directly from them, thus reading
+ * an int or a long allocates nothing. BigInteger and double tokens are
+ * copied to a reusable byte array, and only become a String if they are
+ * too long to be converted through a long.
+ *
+ * Code Jam inputs are plain ASCII, thus bytes are treated as characters.
+ * The underlying stream is read one chunk at a time as soon as data is
+ * available, so this works for interactive problems too.
+ *
+ * @author Salvo Isaja
+ */
+public final class FastScanner implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Up to 18 decimal digits always fit into a long. */
+    private static final int MAX_LONG_DIGITS = 18;
+    /** Integer powers of ten exactly representable as a double. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream is;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    public FastScanner(InputStream is) {
+        this.is = is;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    /** Returns the next byte without consuming it, or -1 at end of input. */
+    private int peek() {
+        if (position == limit) {
+            try {
+                int n;
+                do {
+                    n = is.read(buffer, 0, buffer.length);
+                } while (n == 0);
+                if (n < 0) return -1;
+                position = 0;
+                limit = n;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return buffer[position];
+    }
+
+    /** Skips whitespace and returns the first byte of the next token, without consuming it. */
+    private int skipWhitespace() {
+        int c = peek();
+        while (isWhitespace(c)) {
+            position++;
+            c = peek();
+        }
+        return c;
+    }
+
+    /** Copies the next token into the reusable token array. */
+    private void readToken() {
+        int c = skipWhitespace();
+        if (c < 0) throw new NoSuchElementException();
+        tokenLength = 0;
+        while (c >= 0 && !isWhitespace(c)) {
+            if (tokenLength == token.length) {
+                byte[] t = new byte[token.length * 2];
+                System.arraycopy(token, 0, t, 0, tokenLength);
+                token = t;
+            }
+            token[tokenLength++] = (byte) c;
+            position++;
+            c = peek();
+        }
+    }
+
+    private String tokenToString() {
+        return new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+    }
+
+    public boolean hasNext() {
+        return skipWhitespace() >= 0;
+    }
+
+    public String next() {
+        readToken();
+        return tokenToString();
+    }
+
+    /** Returns the first character of the next token, skipping the rest of it. */
+    public char nextChar() {
+        int first = skipWhitespace();
+        if (first < 0) throw new NoSuchElementException();
+        int c = first;
+        while (c >= 0 && !isWhitespace(c)) {
+            position++;
+            c = peek();
+        }
+        return (char) first;
+    }
+
+    public int nextInt() {
+        long v = nextLong();
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) throw new InputMismatchException("Value out of range: " + v);
+        return (int) v;
+    }
+
+    public long nextLong() {
+        int c = skipWhitespace();
+        if (c < 0) throw new NoSuchElementException();
+        boolean negative = false;
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            position++;
+            c = peek();
+        }
+        if (c < '0' || c > '9') throw new InputMismatchException();
+        // Accumulate as a negative number so that Long.MIN_VALUE is representable
+        long v = 0;
+        while (c >= '0' && c <= '9') {
+            int digit = c - '0';
+            if (v < (Long.MIN_VALUE + digit) / 10) throw new InputMismatchException("Value out of range");
+            v = v * 10 - digit;
+            position++;
+            c = peek();
+        }
+        if (c >= 0 && !isWhitespace(c)) throw new InputMismatchException();
+        if (negative) return v;
+        if (v == Long.MIN_VALUE) throw new InputMismatchException("Value out of range");
+        return -v;
+    }
+
+    public BigInteger nextBigInteger() {
+        readToken();
+        int digits = token[0] == '-' || token[0] == '+' ? tokenLength - 1 : tokenLength;
+        if (digits > 0 && digits <= MAX_LONG_DIGITS) {
+            long v = 0;
+            for (int i = tokenLength - digits; i < tokenLength; i++) {
+                int digit = token[i] - '0';
+                if (digit < 0 || digit > 9) throw new InputMismatchException(tokenToString());
+                v = v * 10 + digit;
+            }
+            return BigInteger.valueOf(token[0] == '-' ? -v : v);
+        }
+        try {
+            return new BigInteger(tokenToString());
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a decimal number. If mantissa digits fit into 53 bits and there
+     * are no more than 22 fractional digits, dividing the mantissa by a power
+     * of ten is exact and correctly rounded, just like Double.parseDouble.
+     * Anything else, including exponents, falls back to Double.parseDouble.
+     */
+    public double nextDouble() {
+        readToken();
+        int i = token[0] == '-' || token[0] == '+' ? 1 : 0;
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean fastPath = true;
+        for (; fastPath && i < tokenLength; i++) {
+            int c = token[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9' && mantissa < (1L << 53) / 10) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) fractionDigits++;
+            } else {
+                fastPath = false;
+            }
+        }
+        if (fastPath && digits > 0 && fractionDigits < POWERS_OF_TEN.length) {
+            double v = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return token[0] == '-' ? -v : v;
+        }
+        try {
+            return Double.parseDouble(tokenToString());
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            is.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
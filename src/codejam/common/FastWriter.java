@@ -0,0 +1,208 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam.common;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A buffered output sink for "Case #n:" lines, the counterpart of FastScanner.
+ *
+ * PrintStream encodes every String through a charset encoder and, when
+ * writing to a terminal or a pipe, may hit the operating system once per
+ * line or even once per character. This writer formats everything into
+ * a reusable byte array, with ints and longs converted directly without
+ * an intermediate String, and writes to the underlying stream only when
+ * the buffer is full, on flush or on close.
+ *
+ * Interactive solutions must call flush after each message to the judge,
+ * just like they did with System.out.flush.
+ *
+ * Output is expected to be plain ASCII, like Code Jam outputs are.
+ *
+ * When CaseMetrics are enabled, each "Case #n:" prefix also marks the end
+ * of the test case n, measured from the last println before it, or from
+ * creation for the first test case. Thus the printing of a result is not
+ * counted, while parsing is, either of a test case, if the solver reads one
+ * at a time, or of all of them in the first test case, if the solver creates
+ * the writer before reading them all.
+ *
+ * @author Salvo Isaja
+ */
+public final class FastWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Long.MIN_VALUE has 19 digits plus sign. */
+    private static final int MAX_LONG_CHARS = 20;
+
+    private final OutputStream os;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private final CaseMetrics metrics = CaseMetrics.get();
+    /** Metrics sample at the end of the last line printed, null if not measuring. */
+    private long[] caseBegin = metrics != null ? CaseMetrics.sample() : null;
+
+    public FastWriter(OutputStream os) {
+        this.os = os;
+    }
+
+    /** Stops measuring test cases, for callers measuring them on their own like ParallelRunner. */
+    void disableCaseMetrics() {
+        caseBegin = null;
+    }
+
+    private void ensureCapacity(int length) {
+        if (BUFFER_SIZE - position < length) flushBuffer();
+    }
+
+    private void flushBuffer() {
+        try {
+            os.write(buffer, 0, position);
+            position = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Prints the "Case #n:" prefix of a result line, without trailing space. */
+    public FastWriter printCase(int testNumber) {
+        if (caseBegin != null) caseBegin = metrics.record(testNumber, caseBegin);
+        return print("Case #").print(testNumber).print(':');
+    }
+
+    public FastWriter print(char c) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    public FastWriter print(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; ) {
+            ensureCapacity(1);
+            int chunk = Math.min(length - i, BUFFER_SIZE - position);
+            for (int j = 0; j < chunk; j++) buffer[position++] = (byte) s.charAt(i++);
+        }
+        return this;
+    }
+
+    public FastWriter print(Object o) {
+        return print(String.valueOf(o));
+    }
+
+    public FastWriter print(boolean b) {
+        return print(b ? "true" : "false");
+    }
+
+    public FastWriter print(int v) {
+        return print((long) v);
+    }
+
+    public FastWriter print(long v) {
+        ensureCapacity(MAX_LONG_CHARS);
+        if (v == Long.MIN_VALUE) return print("-9223372036854775808");
+        if (v < 0) {
+            buffer[position++] = '-';
+            v = -v;
+        }
+        // Write digits backwards right after the current position, then reverse them
+        int begin = position;
+        do {
+            buffer[position++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        for (int i = begin, j = position - 1; i < j; i++, j--) {
+            byte t = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = t;
+        }
+        return this;
+    }
+
+    /**
+     * Prints a double exactly like String.valueOf would, so that outputs
+     * do not change when moving from System.out to this writer.
+     */
+    public FastWriter print(double v) {
+        return print(Double.toString(v));
+    }
+
+    public FastWriter println() {
+        if (caseBegin != null) caseBegin = CaseMetrics.sample();
+        return print('\n');
+    }
+
+    public FastWriter println(char c) {
+        return print(c).println();
+    }
+
+    public FastWriter println(String s) {
+        return print(s).println();
+    }
+
+    public FastWriter println(Object o) {
+        return print(o).println();
+    }
+
+    public FastWriter println(boolean b) {
+        return print(b).println();
+    }
+
+    public FastWriter println(int v) {
+        return print(v).println();
+    }
+
+    public FastWriter println(long v) {
+        return print(v).println();
+    }
+
+    public FastWriter println(double v) {
+        return print(v).println();
+    }
+
+    @Override
+    public void flush() {
+        flushBuffer();
+        try {
+            os.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            os.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
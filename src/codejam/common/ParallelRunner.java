@@ -0,0 +1,223 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam.common;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the test cases of a CaseSolver on a thread pool.
+ *
+ * This is the multi-threaded template I used to copy and paste across
+ * solutions with expensive test cases: read all test cases, solve them
+ * on a fixed thread pool, print results in order. As a bonus, results are
+ * printed as soon as all test cases before them are done, instead of
+ * waiting for the whole pool like invokeAll does, so the output of a long
+ * run shows progress and a crash late in the run does not lose everything.
+ * The writer is flushed only when we are about to wait for a worker, so
+ * results that are already available are still written in bulk.
+ *
+ * Test cases are dispatched to the pool in decreasing order of their
+ * estimated cost, while results are still printed in case order.
+ * A report of the time spent on each case, to be compared with its
+ * estimated cost, can be printed at the end of the run.
+ *
+ * Reading all test cases up front may take a lot of memory on large inputs,
+ * and delays the first result until the whole input has been parsed.
+ * In pipelined mode, a reader thread parses test cases while workers solve
+ * them and the calling thread prints results. No more than a fixed count
+ * of test cases are held at any time, from parsing until their result is
+ * printed, so memory is bounded by that count rather than by input size.
+ * Since test cases are not known in advance, they are solved in input
+ * order and estimated costs are only used for the time report.
+ *
+ * When CaseMetrics are enabled, each test case is measured on the worker
+ * thread solving it, excluding parsing and printing.
+ *
+ * @author Salvo Isaja
+ */
+public final class ParallelRunner<T, R> {
+
+    private final CaseSolver<T, R> solver;
+    private final CaseMetrics metrics = CaseMetrics.get();
+    private final int threadCount;
+    private PrintStream timeReport;
+    private int pipelineDepth;
+
+    public ParallelRunner(CaseSolver<T, R> solver, int threadCount) {
+        if (threadCount < 1) throw new IllegalArgumentException("threadCount must be positive: " + threadCount);
+        this.solver = solver;
+        this.threadCount = threadCount;
+    }
+
+    /** Uses one thread per available processor. */
+    public ParallelRunner(CaseSolver<T, R> solver) {
+        this(solver, Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Prints the estimated cost and the solving time of each test case to report, null to disable. */
+    public ParallelRunner<T, R> setTimeReport(PrintStream report) {
+        this.timeReport = report;
+        return this;
+    }
+
+    /**
+     * Enables pipelined mode, holding at most depth test cases at a time,
+     * or disables it if depth is 0. A depth of a few times the thread count
+     * is enough to keep all threads busy.
+     */
+    public ParallelRunner<T, R> setPipelined(int depth) {
+        if (depth < 0) throw new IllegalArgumentException("depth must not be negative: " + depth);
+        this.pipelineDepth = depth;
+        return this;
+    }
+
+    /** Reads the test case count and the test cases from is, and prints results to os. Closes both streams. */
+    public void run(InputStream is, OutputStream os) throws InterruptedException, ExecutionException {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(os)) {
+            run(scanner, out);
+        }
+    }
+
+    /** Reads the test case count and the test cases from scanner, and prints results to out. */
+    public void run(FastScanner scanner, FastWriter out) throws InterruptedException, ExecutionException {
+        if (metrics != null) out.disableCaseMetrics();
+        int testCount = scanner.nextInt();
+        long[] costs = new long[testCount];
+        long[] solveTimes = new long[testCount];
+        ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        try {
+            if (pipelineDepth > 0) {
+                runPipelined(testCount, scanner, out, threadPool, costs, solveTimes);
+            } else {
+                runBatch(testCount, scanner, out, threadPool, costs, solveTimes);
+            }
+        } finally {
+            threadPool.shutdownNow();
+        }
+        if (timeReport != null) {
+            for (int i = 0; i < testCount; i++) {
+                timeReport.println("Case #" + (i + 1) + ": estimated cost " + costs[i] + ", solved in " + (solveTimes[i] / 1e9) + " seconds.");
+            }
+        }
+    }
+
+    private Future<R> submit(ExecutorService threadPool, T test, int index, long[] solveTimes) {
+        return threadPool.submit(() -> {
+            long[] metricsBegin = metrics != null ? CaseMetrics.sample() : null;
+            long beginTime = System.nanoTime();
+            R result = solver.solveCase(test);
+            solveTimes[index] = System.nanoTime() - beginTime;
+            if (metricsBegin != null) metrics.record(index + 1, metricsBegin);
+            return result;
+        });
+    }
+
+    private void print(int index, Future<R> f, FastWriter out) throws InterruptedException, ExecutionException {
+        if (!f.isDone()) out.flush();
+        solver.printResult(index + 1, f.get(), out);
+    }
+
+    private void runBatch(int testCount, FastScanner scanner, FastWriter out, ExecutorService threadPool,
+            long[] costs, long[] solveTimes) throws InterruptedException, ExecutionException {
+        List<T> tests = new ArrayList<>(testCount);
+        for (int testNumber = 1; testNumber <= testCount; testNumber++) {
+            tests.add(solver.parseCase(testNumber, scanner));
+        }
+        Integer[] order = new Integer[testCount];
+        for (int i = 0; i < testCount; i++) {
+            costs[i] = solver.estimateCost(tests.get(i));
+            order[i] = i;
+        }
+        // Sorting objects is stable, thus cases with the same cost keep input order
+        Arrays.sort(order, (a, b) -> Long.compare(costs[b], costs[a]));
+        List<Future<R>> results = new ArrayList<>(Collections.nCopies(testCount, (Future<R>) null));
+        for (int i : order) results.set(i, submit(threadPool, tests.get(i), i, solveTimes));
+        tests = null; // let workers release test cases as soon as they are done
+        for (int i = 0; i < testCount; i++) {
+            print(i, results.get(i), out);
+            results.set(i, null);
+        }
+    }
+
+    /**
+     * The reader thread takes a permit before parsing each test case,
+     * and the calling thread returns it after printing its result.
+     * Futures are queued in input order, so the calling thread just takes
+     * them one by one. Should parsing fail, the reader queues a failed future
+     * in place of the offending test case, which is rethrown on printing.
+     */
+    private void runPipelined(int testCount, FastScanner scanner, FastWriter out, ExecutorService threadPool,
+            long[] costs, long[] solveTimes) throws InterruptedException, ExecutionException {
+        Semaphore permits = new Semaphore(pipelineDepth);
+        BlockingQueue<Future<R>> results = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < testCount; i++) {
+                    permits.acquire();
+                    T test = solver.parseCase(i + 1, scanner);
+                    costs[i] = solver.estimateCost(test);
+                    results.add(submit(threadPool, test, i, solveTimes));
+                }
+            } catch (InterruptedException e) {
+                // The calling thread gave up, nobody is waiting for us
+            } catch (RuntimeException | Error e) {
+                CompletableFuture<R> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                results.add(failed);
+            }
+        }, "ParallelRunner reader");
+        // The reader may be blocked reading input if we fail, do not let it keep the JVM alive
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            for (int i = 0; i < testCount; i++) {
+                Future<R> f = results.poll();
+                if (f == null) {
+                    out.flush();
+                    f = results.take();
+                }
+                print(i, f, out);
+                permits.release();
+            }
+        } finally {
+            reader.interrupt();
+        }
+    }
+}
@@ -0,0 +1,396 @@
+/*
+Solutions for Code Jam 2017 and later.
+Copyright 2017-2021 Salvatore ISAJA. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice,
+this list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+this list of conditions and the following disclaimer in the documentation
+and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED THE AUTHOR ``AS IS'' AND ANY EXPRESS
+OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN
+NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY DIRECT,
+INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF
+THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package codejam.common;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Runs all solvers on their datasets in the resources directory, within
+ * a single JVM, comparing their outputs with the expected .out files.
+ *
+ * This replaces the old runAll.sh script, which started a new JVM for each
+ * dataset and just overwrote the .out files. Here each solver runs its main
+ * on a thread of its own, with System.in reading the input dataset and
+ * System.out captured in memory, and we record:
+ * - wall time, including JIT compilation on the first run of each solver;
+ * - CPU time of the whole process, thus including worker threads of
+ *   multi-threaded solvers, as well as JIT compiler and GC threads;
+ * - bytes allocated by the thread running main, thus excluding worker threads,
+ *   such as the ones of ParallelRunner, whose allocations are lost anyway
+ *   when they terminate.
+ *
+ * Solver classes are discovered by scanning the classpath for classes having
+ * a main method in the codejamYYYY packages. Datasets are listed in
+ * resources/datasets.txt, where they can't be found by name, such as
+ * resources/codejam2018/round1a/BitParty-1.in for codejam2018.round1a.BitParty.
+ * Solvers listed there with a dash instead of a dataset are skipped: some
+ * still read a hardcoded input file rather than System.in.
+ *
+ * Usage: RegressionHarness [options] [regex...]
+ * Only datasets whose solver class name or input path contain any of the
+ * regular expressions are run, or all datasets if none is specified.
+ * Options:
+ * --update       write outputs to the .out files instead of comparing them;
+ * --runs n       run each dataset n times, reporting the fastest run;
+ * --report file  where to write the CSV report, build/regression.csv by default;
+ * --verbose      let solvers print to System.err.
+ *
+ * If CaseMetrics are enabled, the report also includes p50, p99 and max
+ * wall time of the test cases of each dataset, over all of its runs.
+ *
+ * Solvers run to completion, there is no timeout: use a regular expression
+ * to skip the slowest ones, such as TeleportersLarge on the large dataset.
+ *
+ * @author Salvo Isaja
+ */
+public final class RegressionHarness {
+
+    private static final String RESOURCES_DIR = "resources";
+    private static final String MANIFEST = RESOURCES_DIR + "/datasets.txt";
+    private static final Pattern SOLVER_CLASS = Pattern.compile("codejam\\d{4}\\.\\w+\\.\\w+");
+    /** Suffixes of solver class names not found in dataset names, like AntStackLarge for AntStack-1.in. */
+    private static final Pattern VARIANT_SUFFIX = Pattern.compile("(Small|Large)?\\d*(MT)?$");
+    /** Some solvers need a deep stack, like running them with -Xss16m. */
+    private static final long STACK_SIZE = 16 << 20;
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.OperatingSystemMXBean OS = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private enum Status {
+        /** Output equal to the .out file. */
+        PASS,
+        /** Output different from the .out file. */
+        FAIL,
+        /** No .out file to compare with. */
+        NEW,
+        /** Output written to the .out file in update mode. */
+        UPDATED,
+        /** Input dataset not found. */
+        MISSING,
+        /** The solver threw an exception. */
+        ERROR
+    }
+
+    private static class Dataset {
+        final String className;
+        final String input;
+
+        Dataset(String className, String input) {
+            this.className = className;
+            this.input = input;
+        }
+
+        File inputFile() {
+            return new File(RESOURCES_DIR, input);
+        }
+
+        File outputFile() {
+            return new File(RESOURCES_DIR, input.replaceFirst("\\.in$", "") + ".out");
+        }
+
+        @Override
+        public String toString() {
+            return className + " " + input;
+        }
+    }
+
+    private static class Run {
+        byte[] output;
+        Throwable failure;
+        long wallNanos;
+        long cpuNanos;
+        long mainThreadAllocatedBytes;
+    }
+
+    private boolean update;
+    private int runCount = 1;
+    private File reportFile = new File("build/regression.csv");
+    private boolean verbose;
+    private final List<Pattern> filters = new ArrayList<>();
+    private final PrintStream console = System.out;
+    private final CaseMetrics metrics = CaseMetrics.get();
+
+    private static boolean hasMain(String className) {
+        try {
+            Method main = Class.forName(className, false, RegressionHarness.class.getClassLoader()).getMethod("main", String[].class);
+            return Modifier.isStatic(main.getModifiers());
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** Lists top level classes with a main method in the codejamYYYY packages of our classpath entry. */
+    private static Set<String> discoverSolvers() throws IOException, URISyntaxException {
+        Path root = Paths.get(RegressionHarness.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> classFiles = new ArrayList<>();
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.forEach(p -> classFiles.add(root.relativize(p).toString().replace(File.separatorChar, '/')));
+            }
+        } else {
+            try (JarFile jar = new JarFile(root.toFile())) {
+                for (Enumeration<JarEntry> e = jar.entries(); e.hasMoreElements(); ) classFiles.add(e.nextElement().getName());
+            }
+        }
+        Set<String> solvers = new TreeSet<>();
+        for (String f : classFiles) {
+            if (!f.endsWith(".class") || f.contains("$")) continue;
+            String className = f.substring(0, f.length() - ".class".length()).replace('/', '.');
+            if (SOLVER_CLASS.matcher(className).matches() && hasMain(className)) solvers.add(className);
+        }
+        return solvers;
+    }
+
+    /** Reads datasets from the manifest, adding solvers without datasets to skipped. */
+    private static List<Dataset> readManifest(Set<String> skipped) throws IOException {
+        List<Dataset> datasets = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(MANIFEST))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split("\\s+");
+                if (fields.length != 2) throw new IOException("Invalid line in " + MANIFEST + ": " + line);
+                if (fields[1].equals("-")) skipped.add(fields[0]);
+                else datasets.add(new Dataset(fields[0], fields[1]));
+            }
+        }
+        return datasets;
+    }
+
+    /** Finds datasets named after a solver, in the resources directory of its package. */
+    private static List<Dataset> findDatasetsByName(String className) {
+        int dot = className.lastIndexOf('.');
+        String dir = className.substring(0, dot).replace('.', '/');
+        String problem = VARIANT_SUFFIX.matcher(className.substring(dot + 1)).replaceFirst("");
+        Pattern inputName = Pattern.compile(Pattern.quote(problem) + "-\\d+\\.in");
+        String[] names = new File(RESOURCES_DIR, dir).list();
+        List<Dataset> datasets = new ArrayList<>();
+        if (names == null) return datasets;
+        Arrays.sort(names);
+        for (String name : names) {
+            if (inputName.matcher(name).matches()) datasets.add(new Dataset(className, dir + "/" + name));
+        }
+        return datasets;
+    }
+
+    private boolean isSelected(Dataset d) {
+        if (filters.isEmpty()) return true;
+        for (Pattern p : filters) {
+            if (p.matcher(d.className).find() || p.matcher(d.input).find()) return true;
+        }
+        return false;
+    }
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    /** Runs the main method of a solver on its own thread, with redirected standard streams. */
+    private Run runSolver(Method main, File input) throws IOException, InterruptedException {
+        Run run = new Run();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        InputStream stdin = System.in;
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        try (InputStream is = new FileInputStream(input)) {
+            System.setIn(is);
+            System.setOut(new PrintStream(output));
+            if (!verbose) System.setErr(new PrintStream(NULL_OUTPUT));
+            Thread thread = new Thread(null, () -> {
+                long threadId = Thread.currentThread().getId();
+                long beginAllocatedBytes = THREADS.getThreadAllocatedBytes(threadId);
+                try {
+                    main.invoke(null, (Object) new String[0]);
+                } catch (InvocationTargetException e) {
+                    run.failure = e.getCause();
+                } catch (IllegalAccessException | RuntimeException | Error e) {
+                    run.failure = e;
+                }
+                run.mainThreadAllocatedBytes = THREADS.getThreadAllocatedBytes(threadId) - beginAllocatedBytes;
+            }, "RegressionHarness solver", STACK_SIZE);
+            long beginCpuTime = OS.getProcessCpuTime();
+            long beginTime = System.nanoTime();
+            thread.start();
+            thread.join();
+            run.wallNanos = System.nanoTime() - beginTime;
+            run.cpuNanos = OS.getProcessCpuTime() - beginCpuTime;
+        } finally {
+            System.out.flush();
+            System.setIn(stdin);
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+        run.output = output.toByteArray();
+        return run;
+    }
+
+    /** Returns a short description of the first different line, or null if outputs are equal. */
+    private static String compare(byte[] expected, byte[] actual) {
+        if (Arrays.equals(expected, actual)) return null;
+        String[] e = new String(expected, StandardCharsets.US_ASCII).split("\n", -1);
+        String[] a = new String(actual, StandardCharsets.US_ASCII).split("\n", -1);
+        for (int i = 0; i < Math.min(e.length, a.length); i++) {
+            if (!e[i].equals(a[i])) return "line " + (i + 1) + ": expected \"" + e[i] + "\" but was \"" + a[i] + "\"";
+        }
+        return "expected " + e.length + " lines but was " + a.length;
+    }
+
+    private static String csvField(String s) {
+        if (s == null) return "";
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    private int runAll(List<Dataset> datasets) throws IOException, InterruptedException {
+        int failureCount = 0;
+        File reportDir = reportFile.getAbsoluteFile().getParentFile();
+        if (reportDir != null) reportDir.mkdirs();
+        try (PrintWriter report = new PrintWriter(reportFile, "US-ASCII")) {
+            report.println("solver,dataset,status,wallMillis,cpuMillis,mainThreadAllocatedBytes,p50CaseMillis,p99CaseMillis,maxCaseMillis,message");
+            for (Dataset d : datasets) {
+                Status status;
+                String message = null;
+                Run best = null;
+                if (!d.inputFile().isFile()) {
+                    status = Status.MISSING;
+                } else {
+                    Method main;
+                    try {
+                        main = Class.forName(d.className).getMethod("main", String[].class);
+                    } catch (ClassNotFoundException | NoSuchMethodException e) {
+                        throw new IOException("Invalid solver " + d.className + " in " + MANIFEST, e);
+                    }
+                    if (metrics != null) metrics.setDataset(d.toString());
+                    for (int i = 0; i < runCount; i++) {
+                        Run run = runSolver(main, d.inputFile());
+                        if (best == null || run.failure != null || run.wallNanos < best.wallNanos) best = run;
+                        if (run.failure != null) break;
+                    }
+                    File outputFile = d.outputFile();
+                    if (best.failure != null) {
+                        status = Status.ERROR;
+                        message = best.failure.toString();
+                    } else if (update) {
+                        Files.write(outputFile.toPath(), best.output);
+                        status = Status.UPDATED;
+                    } else if (!outputFile.isFile()) {
+                        status = Status.NEW;
+                    } else {
+                        message = compare(Files.readAllBytes(outputFile.toPath()), best.output);
+                        status = message == null ? Status.PASS : Status.FAIL;
+                    }
+                }
+                if (status == Status.FAIL || status == Status.ERROR) failureCount++;
+                console.print(String.format("%-7s %-50s %-55s", status, d.className, d.input));
+                if (best != null) console.print(String.format(" %9.3f s %9.3f s CPU %,15d bytes on main", best.wallNanos / 1e9, best.cpuNanos / 1e9, best.mainThreadAllocatedBytes));
+                console.println(message != null ? "  " + message : "");
+                long[] latencies = metrics != null ? metrics.latencies(d.toString()) : null;
+                report.println(csvField(d.className) + ',' + csvField(d.input) + ',' + status + ','
+                        + (best != null ? best.wallNanos / 1000000 + "," + best.cpuNanos / 1000000 + "," + best.mainThreadAllocatedBytes : ",,") + ','
+                        + (latencies != null ? latencies[0] / 1e6 + "," + latencies[1] / 1e6 + "," + latencies[2] / 1e6 : ",,")
+                        + ',' + csvField(message));
+            }
+        }
+        return failureCount;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, URISyntaxException {
+        RegressionHarness harness = new RegressionHarness();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--update": harness.update = true; break;
+                case "--runs": harness.runCount = Integer.parseInt(args[++i]); break;
+                case "--report": harness.reportFile = new File(args[++i]); break;
+                case "--verbose": harness.verbose = true; break;
+                default: harness.filters.add(Pattern.compile(args[i]));
+            }
+        }
+        Set<String> solvers = discoverSolvers();
+        Set<String> skipped = new TreeSet<>();
+        List<Dataset> manifest = readManifest(skipped);
+        Set<String> solversWithDatasets = new LinkedHashSet<>();
+        List<Dataset> datasets = new ArrayList<>();
+        for (Dataset d : manifest) {
+            datasets.add(d);
+            solversWithDatasets.add(d.className);
+        }
+        for (String s : solvers) {
+            if (solversWithDatasets.contains(s) || skipped.contains(s)) continue;
+            List<Dataset> found = findDatasetsByName(s);
+            if (!found.isEmpty()) solversWithDatasets.add(s);
+            datasets.addAll(found);
+        }
+        List<Dataset> selected = new ArrayList<>();
+        for (Dataset d : datasets) {
+            if (harness.isSelected(d)) selected.add(d);
+        }
+        long beginTime = System.nanoTime();
+        int failureCount = harness.runAll(selected);
+        Set<String> untested = new TreeSet<>(solvers);
+        untested.removeAll(solversWithDatasets);
+        untested.removeAll(skipped);
+        if (!untested.isEmpty()) System.out.println("Solvers without datasets: " + String.join(", ", untested));
+        if (!skipped.isEmpty()) System.out.println("Solvers skipped by " + MANIFEST + ": " + String.join(", ", skipped));
+        System.out.println(selected.size() + " datasets, " + failureCount + " failed, report written to " + harness.reportFile);
+        System.err.println("RegressionHarness done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
+        // Do not wait for threads possibly left behind by solvers
+        System.exit(failureCount > 0 ? 1 : 0);
+    }
+}
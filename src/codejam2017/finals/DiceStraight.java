@@ -25,17 +25,14 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
-import java.util.Set;
-import java.util.TreeMap;
 
 /**
  * The Dice Straight problem from Google Code Jam World Finals 2017.
@@ -43,21 +40,24 @@ import java.util.TreeMap;
  *
  * The basic idea of the algorithm is to put all values on the faces of all dice
  * in a list sorted by value, storing the set of containing dice with each value.
- * We then scan values until consecutive values are present, and until we can
- * use a different die for each value.
- * When no free die is found for a value, we try to recursively shuffle the dice
- * already used for other values so that we can free a die for the new value.
+ * We then slide a window of consecutive values along the list, keeping a
+ * different die assigned to each value in the window, that is a bipartite
+ * matching between values and dice.
+ * When a value entering the window finds no free die, we search an augmenting
+ * path shuffling the dice already used for other values. If none exists, the
+ * values at the beginning of the window are dropped, freeing their dice, until
+ * the new value can be matched. Since any subset of a matchable set of values
+ * is matchable too, the window never needs to shrink from the other side.
  * The rest is just optimization, such as early exiting when the longest possible
- * straight is found, or avoiding to scan already scanned sequences, whose
- * values already have a die assigned to.
+ * straight is found.
  *
- * Being n the number of dice, and f the number of faces, the algorithm is
- * linear with the number of possible values (at most n*f), but for each value
- * scanned a recursive shuffle may be needed, giving worst case exponential
- * complexity. Fortunately the larger the number of dice, the higher the
- * probability to find an unused die to replace one used by a previous value.
- * 
- * Note: the large test dataset needs deep recursion, thus a large stack is needed (eg. -Xss16m).
+ * Being n the number of dice, and f the number of faces, there are at most n*f
+ * values and n*f value-die pairs. Each value enters and leaves the window once,
+ * and each failed search drops a value, thus there are at most 2*n*f searches,
+ * each visiting every pair at most once. The search is iterative, with an
+ * explicit stack, and marks visited dice with a stamp instead of a set, thus
+ * no deep recursion nor allocation is needed. The higher the number of dice,
+ * the higher the probability to find an unused die right away.
  *
  * @author Salvo Isaja
  */
@@ -65,153 +65,150 @@ public class DiceStraight {
 
     private static final int FACE_COUNT = 6;
     
-    private static class Die {
+    static class Die {
         int id; // for debugging purposes only
         int[] values = new int[FACE_COUNT];
-        DieValue valueUsing; // the one value using this die, or null if this die is not used
         Die(int id) { this.id = id; }
     }
 
-    private static class DieValue {
-        int value;
-        List<Die> dice; // Set of dice containing this value
-
-        DieValue(int value, List<Die> dice) {
-            this.value = value;
-            this.dice = dice;
-        }
-
-        /** Returns the first unused die among the ones containing this value, or null if not found. */
-        Die findUnusedDie() {
-            for (Die die : dice) {
-                if (die.valueUsing == null) return die;
-            }
-            return null;
-        }
-
-        /** If no die is used by this value, use the first die among the ones containing this value. */
-        void assignDie() {
-            for (Die die : dice) {
-                if (die.valueUsing != null) return;
-            }
-            dice.get(0).valueUsing = this;
-        }
-
-        /** If a die is used by this value, unassign it. */
-        void unassignDie() {
-            for (Die die : dice) {
-                if (die.valueUsing == this) {
-                    die.valueUsing = null;
-                    break;
-                }
-            }
-        }
-    }
-
-    private static class Test {
+    static class Test {
         List<Die> dice = new ArrayList<>();
-        List<DieValue> dieValues; // Set of distinct values on the face of all dice, sorted by value
-        Set<Die> diceVisitedWhileShuffling; // To skip already visited dice when recursively shuffling
+        int[] values; // Distinct values on the face of all dice, sorted
+        int[] valueDiceBegin; // Dice containing values[v] are in valueDice from valueDiceBegin[v] to valueDiceBegin[v + 1]
+        int[] valueDice;
+        int[] dieOfValue; // The die used by each value, or -1 if none
+        int[] valueOfDie; // The value using each die, or -1 if the die is not used
+        int[] dieStamps; // The search having last visited each die
+        int stamp;
+        int[] valueStack; // Values whose dice are being shuffled by the current search
+        int[] nextDieStack; // Next position in valueDice to try for each value in valueStack
 
-        /** Populates the dieValues list from the list of dice. */
+        /** Populates the value arrays from the list of dice. */
         void prepareValues() {
-            // We don't have particular memory constrains, let's abuse a TreeMap to get sorted unique values
-            Map<Integer, List<Die>> valueMap = new TreeMap<>();
-            for (Die die : dice) {
-                for (int v : die.values) {
-                    List<Die> ds = valueMap.get(v);
-                    if (ds == null) valueMap.put(v, new ArrayList<>(Arrays.asList(die)));
-                    else ds.add(die);
+            // Sort all value-die pairs packed in longs, then group them by value
+            long[] pairs = new long[dice.size() * FACE_COUNT];
+            int pairCount = 0;
+            for (int d = 0; d < dice.size(); d++) {
+                for (int v : dice.get(d).values) pairs[pairCount++] = ((long) v << 32) | d;
+            }
+            Arrays.sort(pairs);
+            values = new int[pairCount];
+            valueDiceBegin = new int[pairCount + 1];
+            valueDice = new int[pairCount];
+            int valueCount = 0;
+            int diceCount = 0;
+            for (int i = 0; i < pairCount; i++) {
+                if (i > 0 && pairs[i] == pairs[i - 1]) continue; // same value on two faces of a die
+                int v = (int) (pairs[i] >>> 32);
+                if (valueCount == 0 || values[valueCount - 1] != v) {
+                    values[valueCount] = v;
+                    valueDiceBegin[valueCount] = diceCount;
+                    valueCount++;
                 }
+                valueDice[diceCount++] = (int) pairs[i];
             }
-            // But an ArrayList is much better for iteration later
-            dieValues = new ArrayList<>(valueMap.size());
-            valueMap.forEach((v, ds) -> dieValues.add(new DieValue(v, ds)));
+            valueDiceBegin[valueCount] = diceCount;
+            values = Arrays.copyOf(values, valueCount);
+            valueDiceBegin = Arrays.copyOf(valueDiceBegin, valueCount + 1);
         }
 
         /**
-         * Attempt to recursively free a die by selecting a different die for the same value.
-         * @return true if the die has been freed, false if no other die can be found.
+         * Attempts to assign a die to the specified value, by possibly
+         * shuffling dice already used by other values along an augmenting path.
+         * This is a depth first search where, like in Hopcroft-Karp, each die
+         * is visited at most once.
+         * @return true if a die has been assigned, false if no shuffling results in an unused die.
          */
-        boolean freeByShuffling(Die die) {
-            assert die.valueUsing != null;
-            // First check if we can just use another dice for the previous value
-            for (Die otherDie : die.valueUsing.dice) {
-                if (otherDie.valueUsing == null) {
-                    otherDie.valueUsing = die.valueUsing;
-                    die.valueUsing = null;
-                    return true;
+        boolean assignByShuffling(int value) {
+            stamp++;
+            int top = 0;
+            valueStack[0] = value;
+            nextDieStack[0] = valueDiceBegin[value];
+            while (top >= 0) {
+                int v = valueStack[top];
+                // First check if we can just use an unused die, dice don't change while searching
+                if (nextDieStack[top] == valueDiceBegin[v]) {
+                    for (int i = valueDiceBegin[v]; i < valueDiceBegin[v + 1]; i++) {
+                        int die = valueDice[i];
+                        if (valueOfDie[die] < 0) {
+                            // Each value on the stack takes the die used by the next one
+                            for (; top >= 0; top--) {
+                                int w = valueStack[top];
+                                int freedDie = dieOfValue[w];
+                                dieOfValue[w] = die;
+                                valueOfDie[die] = w;
+                                die = freedDie;
+                            }
+                            return true;
+                        }
+                    }
                 }
-            }
-            // Nope, we must free a die recursively
-            diceVisitedWhileShuffling.add(die);
-            for (Die otherDie : die.valueUsing.dice) {
-                if (diceVisitedWhileShuffling.contains(otherDie)) continue;
-                if (freeByShuffling(otherDie)) {
-                    otherDie.valueUsing = die.valueUsing;
-                    die.valueUsing = null;
-                    return true;
+                // Nope, we must free a die used by another value
+                int next = -1;
+                while (nextDieStack[top] < valueDiceBegin[v + 1]) {
+                    int die = valueDice[nextDieStack[top]++];
+                    if (dieStamps[die] != stamp && valueOfDie[die] != v) {
+                        dieStamps[die] = stamp;
+                        next = valueOfDie[die];
+                        break;
+                    }
+                }
+                if (next < 0) {
+                    top--;
+                } else {
+                    top++;
+                    valueStack[top] = next;
+                    nextDieStack[top] = valueDiceBegin[next];
                 }
             }
             return false;
         }
 
-        /**
-         * Attempt to find an unused die for the specified value by possibly shuffling other already used dice.
-         * @return A now-unused die, or null if no shuffling results in an unused die.
-         */
-        Die findUnusedByShuffling(DieValue dv) {
-            diceVisitedWhileShuffling = new HashSet<>();
-            for (Die die : dv.dice) {
-                if (freeByShuffling(die)) return die;
-            }
-            return null;
-        }
-
         /** Finds the maximum length of dice with consecutive values. */
         int findLongestStraight() {
+            dieOfValue = new int[values.length];
+            valueOfDie = new int[dice.size()];
+            dieStamps = new int[dice.size()];
+            valueStack = new int[dice.size() + 1];
+            nextDieStack = new int[dice.size() + 1];
+            Arrays.fill(dieOfValue, -1);
+            Arrays.fill(valueOfDie, -1);
             int maxLength = 1;
-            int endIndex = 0;
-            for (int beginIndex = 0; beginIndex < dieValues.size() - 1; ) {
-                DieValue dv = dieValues.get(beginIndex);
-                debugPrint("  Sequence starting from #" + beginIndex + ": " + dv.value + "... ");
-                dv.assignDie();
-                int beginValue = dieValues.get(beginIndex).value;
-                int maxPossibleLength = Math.min(dieValues.size() - beginIndex, dice.size());
-                int nextBeginIndex = beginIndex + 1;
-                if (endIndex <= beginIndex) endIndex = beginIndex + 1;
-                while (endIndex < dieValues.size()) {
-                    dv = dieValues.get(endIndex);
-                    debugPrint("    Comparing against #" + endIndex + ": " + dv.value + "... ");
-                    if (dv.value != beginValue + endIndex - beginIndex) {
-                        // Not a consecutive value, restart scanning from there
-                        nextBeginIndex = endIndex;
-                        break;
-                    }
-                    Die die = dv.findUnusedDie();
-                    if (die == null) die = findUnusedByShuffling(dv);
-                    if (die == null) break;
-                    die.valueUsing = dv;
-                    endIndex++;
-                    if (endIndex - beginIndex > maxLength) maxLength = endIndex - beginIndex;
-                    if (maxLength == maxPossibleLength) break;
+            int beginIndex = 0;
+            for (int endIndex = 0; endIndex < values.length; endIndex++) {
+                debugPrint("    Adding #" + endIndex + ": " + values[endIndex] + "... ");
+                if (endIndex > beginIndex && values[endIndex] != values[endIndex - 1] + 1) {
+                    // Not a consecutive value, restart scanning from there
+                    for (; beginIndex < endIndex; beginIndex++) unassignDie(beginIndex);
+                }
+                while (!assignByShuffling(endIndex)) {
+                    // The old values at the beginning prevent using this one, free their dice
+                    unassignDie(beginIndex++);
                 }
-                debugPrint("length " + (endIndex - beginIndex) + " max " + maxLength);
-                if (maxLength == maxPossibleLength) break;
-                // The old values at the beginning are no longer useful, free their dice
-                for (; beginIndex < nextBeginIndex; beginIndex++) {
-                    dieValues.get(beginIndex).unassignDie();
+                if (endIndex + 1 - beginIndex > maxLength) {
+                    maxLength = endIndex + 1 - beginIndex;
+                    debugPrint("  Sequence starting from #" + beginIndex + ": " + values[beginIndex] + " max " + maxLength);
+                    if (maxLength == dice.size()) break;
                 }
             }
             return maxLength;
         }
 
+        /** If a die is used by the specified value, unassign it. */
+        private void unassignDie(int value) {
+            int die = dieOfValue[value];
+            if (die >= 0) {
+                valueOfDie[die] = -1;
+                dieOfValue[value] = -1;
+            }
+        }
+
         void print() {
             if (DEBUG) {
-                for (DieValue dv : dieValues) {
-                    System.out.print(dv.value);
-                    for (Die die : dv.dice) {
-                        System.out.print("\t" + die.id);
+                for (int v = 0; v < values.length; v++) {
+                    System.out.print(values[v]);
+                    for (int i = valueDiceBegin[v]; i < valueDiceBegin[v + 1]; i++) {
+                        System.out.print("\t" + dice.get(valueDice[i]).id);
                     }
                     System.out.println();
                 }
@@ -227,7 +224,7 @@ public class DiceStraight {
     }
 
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is)) {
             int testCount = scanner.nextInt();
             for (int t = 0; t < testCount; t++) {
                 Test test = new Test();
@@ -245,14 +242,14 @@ public class DiceStraight {
         }
     }
 
-    private void runTests() {
+    private void runTests(FastWriter out) {
         int caseIndex = 1;
         for (Test test : tests) {
             test.prepareValues();
             test.print();
-            debugPrint("Case #" + caseIndex + " has " + test.dice.size() + " dice and " + test.dieValues.size() + " values.");
+            debugPrint("Case #" + caseIndex + " has " + test.dice.size() + " dice and " + test.values.length + " values.");
             int length = test.findLongestStraight();
-            System.out.println("Case #" + caseIndex + ": " + length);
+            out.printCase(caseIndex).print(' ').println(length);
             caseIndex++;
         }
     }
@@ -261,7 +258,9 @@ public class DiceStraight {
         long t = System.nanoTime();
         DiceStraight ds = new DiceStraight();
         ds.scanTests(DEBUG ? new FileInputStream("resources/codejam2017/finals/A-large-practice.in") : System.in);
-        ds.runTests();
+        try (FastWriter out = new FastWriter(System.out)) {
+            ds.runTests(out);
+        }
         System.err.println("DiceStraight done in " + ((System.nanoTime() - t) / 1e9) + " seconds.");
     }
 }
@@ -25,19 +25,20 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.CaseSolver;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
+import codejam.common.ParallelRunner;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
-import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.Random;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Omnicircumnavigation problem from Google Code Jam World Finals 2017.
@@ -70,12 +71,35 @@ import java.util.concurrent.Future;
  * of the next pair the "farthest" point found in the previous iteration,
  * since closer pairs share close neighbors likely processed over and over.
  * With this change, the large dataset is completed in less than 30 seconds.
+ *
+ * Looking at it from another angle, the answer is YES if and only if the
+ * origin lies within the convex hull of the points, that is the points do
+ * not fit in any hemisphere, ties on its border broken as above. Thus
+ * scanHull builds the spherical convex polygon enclosing the points added
+ * so far, like a 2D convex hull, and stops as soon as the opposite of a new
+ * point falls within that polygon. Adding points in random order, the
+ * polygon rarely changes, and on average this takes O(n h) time, with h
+ * vertices on the polygon, instead of O(n^3), with the same triple products
+ * as scanPlanes. The USE_HULL flag selects the algorithm, and CROSS_CHECK
+ * runs both to compare them. scanHull agrees with scanPlanes on the small
+ * dataset and on random inputs, but has never been checked on the large
+ * dataset, thus scanPlanes is still the default.
+ *
+ * Both algorithms work on a PointSet, holding coordinates in three arrays of
+ * longs, and keep vectors in local variables and indices in reusable arrays,
+ * so that nothing is allocated while scanning, whatever escape analysis does.
+ * This alone made scanPlanes about twice as fast.
+ *
+ * A single huge test case can keep the whole run waiting on one thread, thus
+ * scanPlanes splits the planes of test cases with many points across the
+ * common ForkJoinPool, each task pairing a range of points with all following
+ * ones. The first task deciding the answer makes the others stop early.
  * 
  * @author Salvo Isaja
  */
-public class Omnicircumnavigation {
+public class Omnicircumnavigation implements CaseSolver<Omnicircumnavigation.Test, Boolean> {
 
-    private static class Point {
+    static class Point {
         public final long x;
         public final long y;
         public final long z;
@@ -112,36 +136,298 @@ public class Omnicircumnavigation {
         }
     }
 
-    private static class Test implements Callable<String> {
+    /**
+     * The points of a test case as a structure of arrays, so that the scans
+     * address points by index and compute vectors into local variables,
+     * without allocating anything in their loops.
+     */
+    static class PointSet {
+        final int size;
+        final long[] xs;
+        final long[] ys;
+        final long[] zs;
+
+        PointSet(List<Point> points) {
+            size = points.size();
+            xs = new long[size];
+            ys = new long[size];
+            zs = new long[size];
+            for (int i = 0; i < size; i++) {
+                Point p = points.get(i);
+                xs[i] = p.x;
+                ys[i] = p.y;
+                zs[i] = p.z;
+            }
+        }
+
+        /** Returns the triple product (a x b) . c of the points at the specified indices. */
+        long tripleProduct(int a, int b, int c) {
+            return (ys[a] * zs[b] - zs[a] * ys[b]) * xs[c]
+                    + (zs[a] * xs[b] - xs[a] * zs[b]) * ys[c]
+                    + (xs[a] * ys[b] - ys[a] * xs[b]) * zs[c];
+        }
+
+        /** Returns whether the points at the specified indices lie on the same line through the origin. */
+        boolean isCollinear(int a, int b) {
+            return ys[a] * zs[b] == zs[a] * ys[b]
+                    && zs[a] * xs[b] == xs[a] * zs[b]
+                    && xs[a] * ys[b] == ys[a] * xs[b];
+        }
+
+        long dotProduct(int a, int b) {
+            return xs[a] * xs[b] + ys[a] * ys[b] + zs[a] * zs[b];
+        }
+
+        /**
+         * Returns the sign of the cross product of x and y along the normal
+         * of their plane, that is 1 if y is counterclockwise from x looking
+         * from the normal. Only one component of the cross product is
+         * computed, the one where the normal is largest, thus surely not zero.
+         */
+        int planarOrientation(long nx, long ny, long nz, int x, int y) {
+            long ax = Math.abs(nx);
+            long ay = Math.abs(ny);
+            long az = Math.abs(nz);
+            if (ax >= ay && ax >= az) return Long.signum(ys[x] * zs[y] - zs[x] * ys[y]) * Long.signum(nx);
+            if (ay >= az) return Long.signum(zs[x] * xs[y] - xs[x] * zs[y]) * Long.signum(ny);
+            return Long.signum(xs[x] * ys[y] - ys[x] * xs[y]) * Long.signum(nz);
+        }
+    }
+
+    static class Test {
         private final int testIndex;
-        private final List<Point> points;
+        final PointSet points;
+
+        /**
+         * Returns whether the origin lies within the convex hull of points,
+         * with the same answer as scanPlanes.
+         * While the points added so far fit in a hemisphere, they span a
+         * pointed cone, kept as a spherical convex polygon with vertices in
+         * counterclockwise order, that is (v[i] x v[i + 1]) . p >= 0 for all
+         * edges if p is within. If all edges see a new point from outside,
+         * the opposite of the point is within, and the answer is YES.
+         * Otherwise, edges seeing the point are replaced by two edges through
+         * the point. Before three points off a plane are found, the cone is
+         * just a ray or a planar wedge from a to b.
+         */
+        static boolean scanHull(PointSet points) {
+            int n = points.size;
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Random random = new Random(HULL_SEED);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+            int[] polygon = new int[n];
+            int[] next = new int[n];
+            long[] sides = new long[n];
+            int m = 0;
+            int a = -1;
+            int b = -1;
+            for (int p : order) {
+                if (a < 0) {
+                    a = p;
+                } else if (b < 0) {
+                    if (!points.isCollinear(a, p)) b = p;
+                    else if (points.dotProduct(a, p) < 0) return true; // antipodal
+                } else if (m == 0) {
+                    long d = points.tripleProduct(a, b, p);
+                    if (d != 0) {
+                        polygon[0] = d > 0 ? a : b;
+                        polygon[1] = d > 0 ? b : a;
+                        polygon[2] = p;
+                        m = 3;
+                        continue;
+                    }
+                    long nx = points.ys[a] * points.zs[b] - points.zs[a] * points.ys[b];
+                    long ny = points.zs[a] * points.xs[b] - points.xs[a] * points.zs[b];
+                    long nz = points.xs[a] * points.ys[b] - points.ys[a] * points.xs[b];
+                    int fromA = points.planarOrientation(nx, ny, nz, a, p);
+                    int toB = points.planarOrientation(nx, ny, nz, p, b);
+                    if (fromA <= 0 && toB <= 0) return true; // the wedge turns into a half-plane at least
+                    if (toB <= 0) b = p;
+                    else if (fromA <= 0) a = p;
+                } else {
+                    boolean within = false;
+                    boolean outside = false;
+                    for (int i = 0; i < m; i++) {
+                        sides[i] = points.tripleProduct(polygon[i], polygon[i + 1 < m ? i + 1 : 0], p);
+                        if (sides[i] > 0) within = true;
+                        if (sides[i] < 0) outside = true;
+                    }
+                    if (!outside) continue;
+                    if (!within) return true;
+                    // Edges seeing the point form a chain, possibly extended by
+                    // edges aligned with it: drop vertices inside the chain and
+                    // put the point after the vertex where the chain starts.
+                    int k = 0;
+                    for (int i = 0; i < m; i++) {
+                        if (sides[i > 0 ? i - 1 : m - 1] <= 0 && sides[i] <= 0) continue;
+                        next[k++] = polygon[i];
+                        if (sides[i] <= 0) next[k++] = p;
+                    }
+                    int[] t = polygon;
+                    polygon = next;
+                    next = t;
+                    m = k;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Solves the problem in 2D for the specified points, lying on the
+         * great circle with the specified normal, returning YES or NO if
+         * this decides the answer, or UNDECIDED.
+         */
+        private static int scanGreatCircle(PointSet points, int[] pointsOnPlane, int onPlaneCount, long nx, long ny, long nz) {
+            long[] xs = points.xs;
+            long[] ys = points.ys;
+            long[] zs = points.zs;
+            for (int k = 0; k < onPlaneCount; k++) {
+                int pk = pointsOnPlane[k];
+                boolean hasPointsOnLeft = false;
+                boolean hasPointsOnRight = false;
+                for (int l = 0; l < onPlaneCount; l++) {
+                    int pl = pointsOnPlane[l];
+                    // Use the right hand rule to find out if pl is on
+                    // the left or on the right of pk.
+                    // We know pkl will be collinear with the normal
+                    // of the equator, and we can check its sign.
+                    long px = ys[pk] * zs[pl] - zs[pk] * ys[pl];
+                    long py = zs[pk] * xs[pl] - xs[pk] * zs[pl];
+                    long pz = xs[pk] * ys[pl] - ys[pk] * xs[pl];
+                    if (px == 0 && py == 0 && pz == 0) {
+                        if (points.dotProduct(pl, pk) < 0) return YES; // antipodal
+                        continue;
+                    }
+                    if (Long.signum(nx) == Long.signum(px)
+                            && Long.signum(ny) == Long.signum(py)
+                            && Long.signum(nz) == Long.signum(pz)) {
+                        hasPointsOnLeft = true;
+                    } else {
+                        hasPointsOnRight = true;
+                    }
+                }
+                if (!hasPointsOnLeft || !hasPointsOnRight) return NO;
+            }
+            return UNDECIDED;
+        }
+
+        /**
+         * Scans the planes through a range of points, each paired with all
+         * points following it, splitting the range in halves until small
+         * enough. The first task deciding the answer stores it in a shared
+         * result, and the others stop as soon as they see it.
+         */
+        private static final class PlaneTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final PointSet points;
+            private final AtomicInteger result;
+            private final int begin;
+            private final int end;
+
+            PlaneTask(PointSet points, AtomicInteger result, int begin, int end) {
+                this.points = points;
+                this.result = result;
+                this.begin = begin;
+                this.end = end;
+            }
+
+            @Override
+            protected void compute() {
+                if (result.get() != UNDECIDED) return;
+                if (end - begin > 1 && (long) (end - begin) * (points.size - begin) > PAIRS_PER_TASK) {
+                    int middle = (begin + end) >>> 1;
+                    PlaneTask left = new PlaneTask(points, result, begin, middle);
+                    left.fork();
+                    new PlaneTask(points, result, middle, end).compute();
+                    left.join();
+                    return;
+                }
+                int n = points.size;
+                long[] xs = points.xs;
+                long[] ys = points.ys;
+                long[] zs = points.zs;
+                int[] pointsOnPlane = new int[n];
+                for (int pi = begin; pi < end; pi++) {
+                    for (int pj = pi + 1; pj < n; pj++) {
+                        if (result.get() != UNDECIDED) return;
+                        long nx = ys[pi] * zs[pj] - zs[pi] * ys[pj];
+                        long ny = zs[pi] * xs[pj] - xs[pi] * zs[pj];
+                        long nz = xs[pi] * ys[pj] - ys[pi] * xs[pj];
+                        if (nx == 0 && ny == 0 && nz == 0) continue;
+                        int onPlaneCount = 0;
+                        boolean hasPointsAbove = false;
+                        boolean hasPointsBelow = false;
+                        for (int other = 0; other < n; other++) {
+                            if (hasPointsAbove && hasPointsBelow) break;
+                            if (other == pi || other == pj) continue;
+                            long d = nx * xs[other] + ny * ys[other] + nz * zs[other];
+                            if (d < 0) hasPointsBelow = true;
+                            if (d > 0) hasPointsAbove = true;
+                            if (d == 0) pointsOnPlane[onPlaneCount++] = other;
+                        }
+                        if (hasPointsAbove && hasPointsBelow) continue;
+                        int decided = NO;
+                        if (onPlaneCount > 0) {
+                            pointsOnPlane[onPlaneCount++] = pi;
+                            pointsOnPlane[onPlaneCount++] = pj;
+                            decided = scanGreatCircle(points, pointsOnPlane, onPlaneCount, nx, ny, nz);
+                        }
+                        if (decided != UNDECIDED) {
+                            result.compareAndSet(UNDECIDED, decided);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
 
-        private static boolean scanPlanes(List<Point> points) {
-            Set<Point> unvisitedPoints = new HashSet<>(points);
-            Point mostDistantPoint = null;
+        static boolean scanPlanes(PointSet points) {
+            int n = points.size;
+            // Equivalent points are removed while parsing, thus if all points
+            // have the same direction only one is left, with no plane to test
+            if (n < 2) return false;
+            if (n >= PARALLEL_MIN_POINTS && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                AtomicInteger result = new AtomicInteger(UNDECIDED);
+                ForkJoinPool.commonPool().invoke(new PlaneTask(points, result, 0, n));
+                return result.get() != NO;
+            }
+            long[] xs = points.xs;
+            long[] ys = points.ys;
+            long[] zs = points.zs;
+            boolean[] visited = new boolean[n];
+            int[] pointsOnPlane = new int[n];
+            int mostDistantPoint = -1;
+            int first = 0;
             // Loop across all pairs of points, each defining an equator to test.
             // Here there was the usual nested loops for i from 0 to n-1 and
             // for j from i+1 to n.
-            while (!unvisitedPoints.isEmpty()) {
-                Point pi = mostDistantPoint != null && unvisitedPoints.contains(mostDistantPoint) ? mostDistantPoint : unvisitedPoints.iterator().next();
+            while (first < n) {
+                int pi = mostDistantPoint >= 0 && !visited[mostDistantPoint] ? mostDistantPoint : first;
                 long maxDistance = 0;
-                mostDistantPoint = null;
-                for (Point pj : unvisitedPoints) {
-                    if (pj == pi) continue;
-                    Point normal = pi.crossProduct(pj);
-                    if (normal.x == 0 && normal.y == 0 && normal.z == 0) continue;
-                    //debugPrint("Plane for " + pi + " and " + pj + " with normal " + normal);
+                mostDistantPoint = -1;
+                for (int pj = first; pj < n; pj++) {
+                    if (pj == pi || visited[pj]) continue;
+                    long nx = ys[pi] * zs[pj] - zs[pi] * ys[pj];
+                    long ny = zs[pi] * xs[pj] - xs[pi] * zs[pj];
+                    long nz = xs[pi] * ys[pj] - ys[pi] * xs[pj];
+                    if (nx == 0 && ny == 0 && nz == 0) continue;
                     // Check whether there are points above or below the equator
-                    List<Point> pointsOnPlane = new ArrayList<>();
+                    int onPlaneCount = 0;
                     boolean hasPointsAbove = false;
                     boolean hasPointsBelow = false;
-                    for (Point other : points) {
+                    for (int other = 0; other < n; other++) {
                         if (hasPointsAbove && hasPointsBelow) break;
                         if (other == pi || other == pj) continue;
-                        long d = normal.dotProduct(other);
+                        long d = nx * xs[other] + ny * ys[other] + nz * zs[other];
                         if (d < 0) hasPointsBelow = true;
                         if (d > 0) hasPointsAbove = true;
-                        if (d == 0) pointsOnPlane.add(other);
+                        if (d == 0) pointsOnPlane[onPlaneCount++] = other;
                         d = Math.abs(d);
                         if (d > maxDistance) {
                             maxDistance = d;
@@ -149,96 +435,107 @@ public class Omnicircumnavigation {
                         }
                     }
                     if (hasPointsAbove && hasPointsBelow) continue;
-                    if (pointsOnPlane.isEmpty()) return false;
+                    if (onPlaneCount == 0) return false;
                     // Here we have at least three points on a great circle
                     // and have basically the same problem in 2D
-                    pointsOnPlane.add(pi);
-                    pointsOnPlane.add(pj);
-                    for (Point pk : pointsOnPlane) {
-                        //debugPrint("On plane: " + pk);
-                        boolean hasPointsOnLeft = false;
-                        boolean hasPointsOnRight = false;
-                        for (Point pl : pointsOnPlane) {
-                            // Use the right hand rule to find out if pl is on
-                            // the left or on the right of pk.
-                            // We know pkl will be collinear with the normal
-                            // of the equator, and we can check its sign.
-                            Point pkl = pk.crossProduct(pl);
-                            if (pkl.x == 0 && pkl.y == 0 && pkl.z == 0) {
-                                if (pl.dotProduct(pk) < 0) return true; // antipodal
-                                continue;
-                            }
-                            if (Long.signum(normal.x) == Long.signum(pkl.x)
-                                    && Long.signum(normal.y) == Long.signum(pkl.y)
-                                    && Long.signum(normal.z) == Long.signum(pkl.z)) {
-                                hasPointsOnLeft = true;
-                            } else {
-                                hasPointsOnRight = true;
-                            }
-                        }
-                        if (!hasPointsOnLeft || !hasPointsOnRight) return false;
-                    }
+                    pointsOnPlane[onPlaneCount++] = pi;
+                    pointsOnPlane[onPlaneCount++] = pj;
+                    int result = scanGreatCircle(points, pointsOnPlane, onPlaneCount, nx, ny, nz);
+                    if (result != UNDECIDED) return result == YES;
                 }
-                unvisitedPoints.remove(pi);
+                visited[pi] = true;
+                while (first < n && visited[first]) first++;
             }
-            //debugPrint("Points: " + points.size() + " count: " + count);
             return true;
         }
 
         public Test(int testIndex, List<Point> points) {
             this.testIndex = testIndex;
-            this.points = points;
+            this.points = new PointSet(points);
         }
 
-        @Override
-        public String call() {
-            System.err.println("Case #" + testIndex + ", " + points.size() + " points");
-            boolean b = scanPlanes(points);
-            return "Case #" + testIndex + ": " + (b ? "YES" : "NO");
+        public boolean solve() {
+            System.err.println("Case #" + testIndex + ", " + points.size + " points");
+            boolean result = USE_HULL ? scanHull(points) : scanPlanes(points);
+            if (CROSS_CHECK && result != (USE_HULL ? scanPlanes(points) : scanHull(points))) {
+                throw new AssertionError("scanHull and scanPlanes disagree on case #" + testIndex);
+            }
+            return result;
         }
     }
 
     private static final boolean DEBUG = false;
+    /** Whether to use scanHull rather than scanPlanes. */
+    private static final boolean USE_HULL = false;
+    /** Whether to run both scanHull and scanPlanes, failing if they disagree. */
+    private static final boolean CROSS_CHECK = false;
+    /** Seed for the random order of points in scanHull, for reproducible runs. */
+    private static final long HULL_SEED = 2017;
+    /**
+     * Minimum count of points to scan planes in parallel within a test case.
+     * Below this, a test case is too quick to pay for forking and joining.
+     */
+    static final int PARALLEL_MIN_POINTS = 100;
+    /** Approximate count of planes to scan in each parallel task. */
+    private static final int PAIRS_PER_TASK = 4096;
+    /** Result of scanning planes, if they do not decide the answer yet. */
+    private static final int UNDECIDED = 0;
+    /** Result of scanning planes, if the answer is YES. */
+    private static final int YES = 1;
+    /** Result of scanning planes, if the answer is NO. */
+    private static final int NO = 2;
 
     private static void debugPrint(String s) {
         if (DEBUG) System.out.println(s);
     }
 
-    private static void scanTests(InputStream is) throws InterruptedException, ExecutionException {
-        ExecutorService threadPool = Executors.newFixedThreadPool(DEBUG ? 1 : Runtime.getRuntime().availableProcessors());
-        List<Test> tests = new ArrayList<>();
-        try (Scanner scanner = new Scanner(is)) {
-            int testCount = scanner.nextInt();
-            for (int t = 1; t <= testCount; t++) {
-                int pointCount = scanner.nextInt();
-                List<Point> points = new ArrayList<>(pointCount);
-                for (int i = 0; i < pointCount; i++) {
-                    long x = scanner.nextLong();
-                    long y = scanner.nextLong();
-                    long z = scanner.nextLong();
-                    Point np = new Point(x, y, z);
-                    // As a micro-optimization, remove equivalent points before processing
-                    for (Point p : points) {
-                        if (p.isEquivalent(np)) {
-                            np = null;
-                            break;
-                        }
-                    }
-                    if (np != null) points.add(np);
+    @Override
+    public Test parseCase(int testNumber, FastScanner scanner) {
+        int pointCount = scanner.nextInt();
+        List<Point> points = new ArrayList<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            long x = scanner.nextLong();
+            long y = scanner.nextLong();
+            long z = scanner.nextLong();
+            Point np = new Point(x, y, z);
+            // As a micro-optimization, remove equivalent points before processing
+            for (Point p : points) {
+                if (p.isEquivalent(np)) {
+                    np = null;
+                    break;
                 }
-                tests.add(new Test(t, points));
             }
+            if (np != null) points.add(np);
         }
-        List<Future<String>> results = threadPool.invokeAll(tests);
-        for (Future<String> f : results) {
-            System.out.println(f.get());
-        }
-        threadPool.shutdown();
+        return new Test(testNumber, points);
+    }
+
+    /**
+     * Worst case, scanPlanes tests all points against the planes through all
+     * pairs of points, while scanHull tests all points against the polygon.
+     */
+    @Override
+    public long estimateCost(Test test) {
+        long n = test.points.size;
+        return USE_HULL ? n * n : n * n * n;
+    }
+
+    @Override
+    public Boolean solveCase(Test test) {
+        return test.solve();
+    }
+
+    @Override
+    public void printResult(int testNumber, Boolean result, FastWriter out) {
+        out.printCase(testNumber).print(' ').println(result ? "YES" : "NO");
     }
 
     public static void main(String[] args) throws FileNotFoundException, InterruptedException, ExecutionException {
         long t = System.nanoTime();
-        scanTests(DEBUG ? new FileInputStream("resources/codejam2017/finals/D-large-practice.in") : System.in);
+        InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/finals/D-large-practice.in") : System.in;
+        new ParallelRunner<>(new Omnicircumnavigation(), DEBUG ? 1 : Runtime.getRuntime().availableProcessors())
+                .setTimeReport(System.err)
+                .run(is, System.out);
         System.err.println("Omnicircumnavigation done in " + ((System.nanoTime() - t) / 1e9) + " seconds.");
     }
 }
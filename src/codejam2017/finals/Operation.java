@@ -25,13 +25,17 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.CaseSolver;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
+import codejam.common.ParallelRunner;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * The Operation problem from Google Code Jam World Finals 2017.
@@ -73,29 +77,47 @@ import java.util.Scanner;
  * The algorithm scans all cards once, then evaluates the highest possible
  * result in constant time, thus it is O(n).
  * 
+ * Test cases are independent and the large input is quite big, thus they
+ * are parsed, solved and printed in a pipeline by ParallelRunner.
+ *
+ * Card values are small, thus most rationals fit in longs, especially terms,
+ * unlike products of many cards. Rational uses longs while it can, and
+ * BigInteger only after an overflow. Products of multiplication and division
+ * cards are computed at the end with a product tree (see multiplyAll), and
+ * only the final result is normalized. Denominators are kept positive
+ * instead, so that rationals can be compared anyway.
+ * 
  * @author Salvo Isaja
  */
-public class Operation {
+public class Operation implements CaseSolver<Operation.Test, Operation.Rational> {
 
     private static class Card {
         public final int id; // for debugging purposes only
         public final char op;
-        public final BigInteger value;
+        public final long value;
 
-        public Card(int id, char op, BigInteger value) {
+        public Card(int id, char op, long value) {
             this.id = id;
             this.op = op;
             this.value = value;
         }
     }
 
-    private static class Rational implements Comparable {
+    /**
+     * A rational number, not necessarily normalized. Numerator and
+     * denominator are kept as longs as long as they fit, detecting overflows
+     * with Math.multiplyExact and friends, and promoted to BigInteger only
+     * when they do not. Results fitting again in longs are demoted back.
+     */
+    static class Rational implements Comparable {
 
-        public static final Rational ZERO = new Rational(BigInteger.ZERO);
-        public static final Rational ONE = new Rational(BigInteger.ONE);
+        public static final Rational ZERO = new Rational(0);
 
-        public final BigInteger num;
-        public final BigInteger den;
+        private final long num;
+        private final long den;
+        /** Numerator and denominator if they do not fit in longs, otherwise null. */
+        private final BigInteger bigNum;
+        private final BigInteger bigDen;
 
         public static Rational min(Rational a, Rational b) {
             return a.compareTo(b) < 0 ? a : b;
@@ -104,117 +126,371 @@ public class Operation {
         public static Rational max(Rational a, Rational b) {
             return a.compareTo(b) > 0 ? a : b;
         }
-        
-        public Rational(BigInteger num) {
-            this.num = num;
-            den = BigInteger.ONE;
+
+        public Rational(long num) {
+            this(num, 1);
         }
 
-        public Rational(BigInteger num, BigInteger den) {
+        public Rational(long num, long den) {
             this.num = num;
             this.den = den;
+            bigNum = null;
+            bigDen = null;
         }
-        
+
+        public Rational(BigInteger num, BigInteger den) {
+            if (num.bitLength() < Long.SIZE && den.bitLength() < Long.SIZE) {
+                this.num = num.longValue();
+                this.den = den.longValue();
+                bigNum = null;
+                bigDen = null;
+            } else {
+                this.num = 0;
+                this.den = 0;
+                bigNum = num;
+                bigDen = den;
+            }
+        }
+
+        public BigInteger numerator() {
+            return bigNum != null ? bigNum : BigInteger.valueOf(num);
+        }
+
+        public BigInteger denominator() {
+            return bigDen != null ? bigDen : BigInteger.valueOf(den);
+        }
+
+        private boolean isSmall(Rational other) {
+            return bigNum == null && other.bigNum == null;
+        }
+
         public Rational add(Rational other) {
-            BigInteger n = this.num.multiply(other.den).add(other.num.multiply(this.den));
-            BigInteger d = this.den.multiply(other.den);
+            if (isSmall(other)) {
+                try {
+                    return new Rational(Math.addExact(Math.multiplyExact(num, other.den), Math.multiplyExact(other.num, den)), Math.multiplyExact(den, other.den));
+                } catch (ArithmeticException e) {
+                    // Fall back to BigInteger
+                }
+            }
+            BigInteger n = this.numerator().multiply(other.denominator()).add(other.numerator().multiply(this.denominator()));
+            BigInteger d = this.denominator().multiply(other.denominator());
             return new Rational(n, d);
         }
 
-        public Rational subtract(Rational other) {
-            BigInteger n = this.num.multiply(other.den).subtract(other.num.multiply(this.den));
-            BigInteger d = this.den.multiply(other.den);
-            return new Rational(n, d);
+        public Rational add(long value) {
+            if (bigNum == null) {
+                try {
+                    return new Rational(Math.addExact(num, Math.multiplyExact(value, den)), den);
+                } catch (ArithmeticException e) {
+                    // Fall back to BigInteger
+                }
+            }
+            return new Rational(numerator().add(BigInteger.valueOf(value).multiply(denominator())), denominator());
+        }
+
+        public Rational subtract(long value) {
+            if (bigNum == null) {
+                try {
+                    return new Rational(Math.subtractExact(num, Math.multiplyExact(value, den)), den);
+                } catch (ArithmeticException e) {
+                    // Fall back to BigInteger
+                }
+            }
+            return new Rational(numerator().subtract(BigInteger.valueOf(value).multiply(denominator())), denominator());
         }
 
         public Rational multiply(Rational other) {
-            BigInteger n = this.num.multiply(other.num);
-            BigInteger d = this.den.multiply(other.den);
-            return new Rational(n, d);
+            if (isSmall(other)) {
+                try {
+                    return new Rational(Math.multiplyExact(num, other.num), Math.multiplyExact(den, other.den));
+                } catch (ArithmeticException e) {
+                    // Fall back to BigInteger
+                }
+            }
+            return new Rational(this.numerator().multiply(other.numerator()), this.denominator().multiply(other.denominator()));
         }
 
+        /** Returns this divided by other, keeping the denominator positive if both are. */
         public Rational divide(Rational other) {
-            BigInteger n = this.num.multiply(other.den);
-            BigInteger d = this.den.multiply(other.num);
-            return new Rational(n, d);
+            if (isSmall(other)) {
+                try {
+                    long n = Math.multiplyExact(num, other.den);
+                    long d = Math.multiplyExact(den, other.num);
+                    return d < 0 ? new Rational(Math.negateExact(n), Math.negateExact(d)) : new Rational(n, d);
+                } catch (ArithmeticException e) {
+                    // Fall back to BigInteger
+                }
+            }
+            BigInteger n = this.numerator().multiply(other.denominator());
+            BigInteger d = this.denominator().multiply(other.numerator());
+            return d.signum() < 0 ? new Rational(n.negate(), d.negate()) : new Rational(n, d);
         }
 
         public Rational normalize() {
-            BigInteger v = num.gcd(den);
-            if (den.compareTo(BigInteger.ZERO) < 0) v = v.negate();
-            return new Rational(num.divide(v), den.divide(v));
+            if (bigNum == null && num != Long.MIN_VALUE && den != Long.MIN_VALUE) {
+                long a = Math.abs(num);
+                long b = Math.abs(den);
+                while (b != 0) {
+                    long t = a % b;
+                    a = b;
+                    b = t;
+                }
+                if (den < 0) a = -a;
+                return new Rational(num / a, den / a);
+            }
+            BigInteger n = numerator();
+            BigInteger d = denominator();
+            BigInteger v = n.gcd(d);
+            if (d.signum() < 0) v = v.negate();
+            return new Rational(n.divide(v), d.divide(v));
         }
 
         @Override
         public int compareTo(Object o) {
             Rational other = (Rational) o;
-            return this.num.multiply(other.den).compareTo(other.num.multiply(this.den));
+            if (isSmall(other)) {
+                try {
+                    return Long.compare(Math.multiplyExact(num, other.den), Math.multiplyExact(other.num, den));
+                } catch (ArithmeticException e) {
+                    // Fall back to BigInteger
+                }
+            }
+            return this.numerator().multiply(other.denominator()).compareTo(other.numerator().multiply(this.denominator()));
+        }
+
+        public void print(FastWriter out) {
+            if (bigNum == null) out.print(num).print(' ').print(den);
+            else out.print(bigNum).print(' ').print(bigDen);
         }
 
         @Override
         public String toString() {
-            return num.toString() + "/" + den.toString();
+            return bigNum == null ? num + "/" + den : bigNum.toString() + "/" + bigDen.toString();
         }
     }
 
-    private static class Test {
+    /**
+     * Sums integer terms in a long, carrying to a Rational only on overflow,
+     * so that adding a term does not allocate anything.
+     */
+    private static class Sum {
+        private long sum;
+        private Rational carry = Rational.ZERO;
+
+        void add(long value) {
+            try {
+                sum = Math.addExact(sum, value);
+            } catch (ArithmeticException e) {
+                carry = carry.add(sum).add(value);
+                sum = 0;
+            }
+        }
+
+        void subtract(long value) {
+            try {
+                sum = Math.subtractExact(sum, value);
+            } catch (ArithmeticException e) {
+                carry = carry.add(sum).subtract(value);
+                sum = 0;
+            }
+        }
+
+        Rational toRational() {
+            return carry.add(sum);
+        }
+    }
+
+    static class Test {
 
         Rational initialValue;
         Card[] cards;
 
-        Test(BigInteger initialValue, Card[] cards) {
+        Test(long initialValue, Card[] cards) {
             this.initialValue = new Rational(initialValue);
             this.cards = cards;
         }
 
+        /**
+         * Multiplies consecutive factors among the first count, as long as
+         * the sum of their bit lengths fits in a long, storing the products
+         * in place. Returns the count of products.
+         */
+        static int pack(long[] factors, int count) {
+            if (count == 0) return 0;
+            int packedCount = 0;
+            long product = 1;
+            int productBits = 1;
+            for (int i = 0; i < count; i++) {
+                int bits = Long.SIZE - Long.numberOfLeadingZeros(Math.abs(factors[i]));
+                if (productBits + bits > Long.SIZE - 1) {
+                    factors[packedCount++] = product;
+                    product = 1;
+                    productBits = 1;
+                }
+                product *= factors[i];
+                productBits += bits;
+            }
+            factors[packedCount++] = product;
+            return packedCount;
+        }
+
+        /**
+         * A product tree, where leaves are factors and each node holds the
+         * product of its children.
+         */
+        static final class ProductTree {
+            final BigInteger product;
+            final ProductTree left;
+            final ProductTree right;
+
+            ProductTree(long factor) {
+                product = BigInteger.valueOf(factor);
+                left = null;
+                right = null;
+            }
+
+            ProductTree(ProductTree left, ProductTree right) {
+                product = left.product.multiply(right.product);
+                this.left = left;
+                this.right = right;
+            }
+        }
+
+        /**
+         * Returns the product tree of the first count factors, possibly packed.
+         * Multiplying them one at a time takes quadratic time in the size of
+         * the result, thus I multiply them with a balanced tree, where each
+         * multiplication involves numbers of about the same size. This is
+         * where BigInteger uses its faster algorithms (Karatsuba and
+         * Toom-Cook) for big numbers. Very long lists are split across the
+         * common ForkJoinPool.
+         */
+        static ProductTree multiplyAll(long[] factors, int count) {
+            if (count == 0) return new ProductTree(1);
+            if (count >= PARALLEL_MIN_FACTORS && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                return ForkJoinPool.commonPool().invoke(new ProductTask(factors, 0, count));
+            }
+            return multiplyRange(factors, 0, count);
+        }
+
+        private static ProductTree multiplyRange(long[] factors, int begin, int end) {
+            if (end - begin == 1) return new ProductTree(factors[begin]);
+            int middle = (begin + end) >>> 1;
+            return new ProductTree(multiplyRange(factors, begin, middle), multiplyRange(factors, middle, end));
+        }
+
+        /** Multiplies a range of factors, splitting it in halves until small enough. */
+        private static final class ProductTask extends RecursiveTask<ProductTree> {
+            private static final long serialVersionUID = 1L;
+            private final long[] factors;
+            private final int begin;
+            private final int end;
+
+            ProductTask(long[] factors, int begin, int end) {
+                this.factors = factors;
+                this.begin = begin;
+                this.end = end;
+            }
+
+            @Override
+            protected ProductTree compute() {
+                if (end - begin < PARALLEL_MIN_FACTORS) return multiplyRange(factors, begin, end);
+                int middle = (begin + end) >>> 1;
+                ProductTask left = new ProductTask(factors, begin, middle);
+                left.fork();
+                ProductTree right = new ProductTask(factors, middle, end).compute();
+                return new ProductTree(left.join(), right);
+            }
+        }
+
+        /**
+         * Returns gcd(x, m), where m is the absolute value of the product of
+         * the specified tree, provided that 0 <= x < m. Being m = ab, with a
+         * and b the products of the children, gcd(x, ab) = gcd(x, a) g, where
+         * g = gcd(x / gcd(x, a), b), and since gcd(x, a) b divides ab, the
+         * argument x / gcd(x, a) mod b of the second gcd is just
+         * (x mod gcd(x, a) b) / gcd(x, a). Thus I only need remainders of x
+         * going down the tree, like a remainder tree, each level taking time
+         * about linear in the size of x, instead of a single BigInteger.gcd
+         * taking quadratic time.
+         */
+        private static BigInteger gcd(BigInteger x, ProductTree tree) {
+            BigInteger m = tree.product.abs();
+            if (x.signum() == 0) return m;
+            if (tree.left == null) return x.gcd(m);
+            BigInteger a = tree.left.product.abs();
+            BigInteger b = tree.right.product.abs();
+            BigInteger leftGcd = gcd(x.mod(a), tree.left);
+            if (leftGcd.equals(BigInteger.ONE)) return gcd(x.mod(b), tree.right);
+            return leftGcd.multiply(gcd(x.mod(leftGcd.multiply(b)).divide(leftGcd), tree.right));
+        }
+
+        /**
+         * Returns the specified rational normalized, provided that its
+         * denominator is positive and equal to the absolute value of the
+         * product of the specified tree. BigInteger.gcd takes quadratic time,
+         * and would dominate cases with many division cards, thus I find the
+         * gcd going down the product tree of the denominator. Results still
+         * fitting in longs, the common case, just use Euclid on longs.
+         */
+        static Rational normalize(Rational value, ProductTree denominator) {
+            if (value.bigNum == null) return value.normalize();
+            BigInteger num = value.numerator();
+            BigInteger den = value.denominator();
+            BigInteger gcd = gcd(num.mod(den), denominator);
+            if (gcd.equals(BigInteger.ONE)) return value;
+            return new Rational(num.divide(gcd), den.divide(gcd));
+        }
+
         Rational findMaximum() {
-            Rational positiveTerm = Rational.ZERO;
-            Rational negativeTerm = Rational.ZERO;
-            Rational multiplier = Rational.ONE;
-            Rational divider = Rational.ONE;
-            Rational mulSignInverter = null;
-            Rational divSignInverter = null;
+            Sum positiveSum = new Sum();
+            Sum negativeSum = new Sum();
+            long[] multipliers = new long[cards.length];
+            long[] dividers = new long[cards.length];
+            int multiplierCount = 0;
+            int dividerCount = 0;
+            // Sign inverters are negative card values, zero if not found yet
+            long mulSignInverter = 0;
+            long divSignInverter = 0;
             boolean zeroFactor = false;
             for (Card card : cards) {
-                int zeroCmp = card.value.compareTo(BigInteger.ZERO);
+                long value = card.value;
                 switch (card.op) {
                     case '+':
-                        if (zeroCmp > 0) positiveTerm = positiveTerm.add(new Rational(card.value));
-                        else negativeTerm = negativeTerm.add(new Rational(card.value));
+                        if (value > 0) positiveSum.add(value);
+                        else negativeSum.add(value);
                         break;
                     case '-':
-                        if (zeroCmp < 0) positiveTerm = positiveTerm.subtract(new Rational(card.value));
-                        else negativeTerm = negativeTerm.subtract(new Rational(card.value));
+                        if (value < 0) positiveSum.subtract(value);
+                        else negativeSum.subtract(value);
                         break;
                     case '*':
-                        if (zeroCmp > 0) {
-                            multiplier = multiplier.multiply(new Rational(card.value));
-                        } else if (zeroCmp < 0) {
-                            Rational r = new Rational(card.value);
-                            if (mulSignInverter == null) {
-                                mulSignInverter = r;
-                            } else if (r.compareTo(mulSignInverter) > 0) {
-                                multiplier = multiplier.multiply(mulSignInverter);
-                                mulSignInverter = r;
+                        if (value > 0) {
+                            multipliers[multiplierCount++] = value;
+                        } else if (value < 0) {
+                            if (mulSignInverter == 0) {
+                                mulSignInverter = value;
+                            } else if (value > mulSignInverter) {
+                                multipliers[multiplierCount++] = mulSignInverter;
+                                mulSignInverter = value;
                             } else {
-                                multiplier = multiplier.multiply(new Rational(card.value));
+                                multipliers[multiplierCount++] = value;
                             }
                         } else {
                             zeroFactor = true;
                         }
                         break;
                     case '/':
-                        if (zeroCmp > 0) {
-                            divider = divider.multiply(new Rational(card.value));
-                        } else if (zeroCmp < 0) {
-                            Rational r = new Rational(card.value);
-                            if (divSignInverter == null) {
-                                divSignInverter = r;
-                            } else if (r.compareTo(divSignInverter) > 0) {
-                                divider = divider.multiply(divSignInverter);
-                                divSignInverter = r;
+                        if (value > 0) {
+                            dividers[dividerCount++] = value;
+                        } else if (value < 0) {
+                            if (divSignInverter == 0) {
+                                divSignInverter = value;
+                            } else if (value > divSignInverter) {
+                                dividers[dividerCount++] = divSignInverter;
+                                divSignInverter = value;
                             } else {
-                                divider = divider.multiply(new Rational(card.value));
+                                dividers[dividerCount++] = value;
                             }
                         } else {
                             throw new IllegalArgumentException("Zero divisor found");
@@ -224,20 +500,32 @@ public class Operation {
                         throw new UnsupportedOperationException("Invalid operator " + card.op);
                 }
             }
+            Rational positiveTerm = positiveSum.toRational();
+            Rational negativeTerm = negativeSum.toRational();
             // Use the greatest between mulSignInverter and divSignInverter
             // and accumulate the other one to the multiplier or divider
             Rational signInverter;
-            if (mulSignInverter != null && divSignInverter != null) {
-                if (mulSignInverter.compareTo(divSignInverter) > 0) {
-                    signInverter = mulSignInverter;
-                    divider = divider.multiply(divSignInverter);
+            long signInverterDivider = 1;
+            if (mulSignInverter != 0 && divSignInverter != 0) {
+                if (mulSignInverter > divSignInverter) {
+                    signInverter = new Rational(mulSignInverter);
+                    dividers[dividerCount++] = divSignInverter;
                 } else {
-                    signInverter = Rational.ONE.divide(divSignInverter);
-                    multiplier = multiplier.multiply(mulSignInverter);
+                    signInverter = new Rational(-1, -divSignInverter);
+                    multipliers[multiplierCount++] = mulSignInverter;
+                    signInverterDivider = divSignInverter;
                 }
+            } else if (divSignInverter != 0) {
+                signInverter = new Rational(-1, -divSignInverter);
+                signInverterDivider = divSignInverter;
             } else {
-                signInverter = divSignInverter != null ? Rational.ONE.divide(divSignInverter) : mulSignInverter;
+                signInverter = mulSignInverter != 0 ? new Rational(mulSignInverter) : null;
             }
+            multiplierCount = pack(multipliers, multiplierCount);
+            dividerCount = pack(dividers, dividerCount);
+            ProductTree dividerTree = multiplyAll(dividers, dividerCount);
+            Rational multiplier = new Rational(multiplyAll(multipliers, multiplierCount).product, BigInteger.ONE);
+            Rational divider = new Rational(dividerTree.product, BigInteger.ONE);
             debugPrint("  initialValue=" + initialValue + " positiveTerm=" + positiveTerm + " negativeTerm=" + negativeTerm
                     + " signInverter=" + signInverter + " multiplier=" + multiplier + " divider=" + divider + " zeroFactor=" + zeroFactor);
             // Here we do our constant time evaluation. The sign of the multiplier,
@@ -250,8 +538,8 @@ public class Operation {
                         // Let's start with initialValue / divider * 0
                         result = Rational.ZERO.add(negativeTerm).multiply(signInverter).add(positiveTerm).multiply(multiplier);
                     } else {
-                        result = Rational.min(initialValue.divide(divider).normalize().add(negativeTerm),
-                                initialValue.add(negativeTerm).divide(divider).normalize())
+                        result = Rational.min(initialValue.divide(divider).add(negativeTerm),
+                                initialValue.add(negativeTerm).divide(divider))
                                 .multiply(signInverter).add(positiveTerm).multiply(multiplier);
                     }
                 } else {
@@ -259,8 +547,8 @@ public class Operation {
                         // Let's start with (initialValue / divider + negativeTerm) * 0
                         result = Rational.ZERO.add(positiveTerm).multiply(multiplier);
                     } else {
-                        result = Rational.max(initialValue.add(negativeTerm).divide(divider).normalize().add(positiveTerm).multiply(multiplier),
-                                initialValue.divide(divider).normalize().add(positiveTerm).multiply(multiplier).add(negativeTerm));
+                        result = Rational.max(initialValue.add(negativeTerm).divide(divider).add(positiveTerm).multiply(multiplier),
+                                initialValue.divide(divider).add(positiveTerm).multiply(multiplier).add(negativeTerm));
                     }
                 }
             } else {
@@ -269,8 +557,8 @@ public class Operation {
                         // Let's start with initialValue / divider * 0
                         result = Rational.ZERO.add(positiveTerm).multiply(signInverter).add(negativeTerm).multiply(multiplier);
                     } else {
-                        result = Rational.max(initialValue.divide(divider).normalize().add(positiveTerm),
-                                initialValue.add(positiveTerm).divide(divider).normalize())
+                        result = Rational.max(initialValue.divide(divider).add(positiveTerm),
+                                initialValue.add(positiveTerm).divide(divider))
                                 .multiply(signInverter).add(negativeTerm).multiply(multiplier);
                     }
                 } else {
@@ -278,56 +566,67 @@ public class Operation {
                         // Let's start with initialValue / divider * 0
                         result = Rational.ZERO.add(negativeTerm).multiply(multiplier).add(positiveTerm);
                     } else {
-                        result = Rational.max(initialValue.add(positiveTerm).divide(divider).normalize().add(negativeTerm).multiply(multiplier),
-                                initialValue.divide(divider).normalize().add(negativeTerm).multiply(multiplier).add(positiveTerm));
+                        result = Rational.max(initialValue.add(positiveTerm).divide(divider).add(negativeTerm).multiply(multiplier),
+                                initialValue.divide(divider).add(negativeTerm).multiply(multiplier).add(positiveTerm));
                     }
                 }
             }
-            result = result.normalize();
+            // The denominator of the result is the divider, unless wiped out by
+            // the zero factor, times the one of the sign inverter, if any
+            ProductTree denominator = zeroFactor ? new ProductTree(1) : dividerTree;
+            if (signInverterDivider != 1) denominator = new ProductTree(denominator, new ProductTree(signInverterDivider));
+            result = normalize(result, denominator);
             return result;
         }
     }
 
     private static final boolean DEBUG = false;
-    private final List<Test> tests = new ArrayList<>();
+    /** Minimum count of packed factors to multiply them in parallel. */
+    private static final int PARALLEL_MIN_FACTORS = 1024;
+    /** Test cases held by the pipeline, a few per thread is plenty. */
+    private static final int PIPELINE_DEPTH = 64;
 
     private static void debugPrint(String s) {
         if (DEBUG) System.out.println(s);
     }
 
-    private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
-            int testCount = scanner.nextInt();
-            for (int t = 0; t < testCount; t++) {
-                BigInteger initialValue = scanner.nextBigInteger();
-                int cardCount = scanner.nextInt();
-                Card[] cards = new Card[cardCount];
-                for (int i = 0; i < cardCount; i++) {
-                    char op = scanner.next().charAt(0);
-                    BigInteger value = scanner.nextBigInteger();
-                    Card card = new Card(i + 1, op, value);
-                    cards[i] = card;
-                }
-                Test test = new Test(initialValue, cards);
-                tests.add(test);
-            }
+    @Override
+    public Test parseCase(int testNumber, FastScanner scanner) {
+        long initialValue = scanner.nextLong();
+        int cardCount = scanner.nextInt();
+        Card[] cards = new Card[cardCount];
+        for (int i = 0; i < cardCount; i++) {
+            char op = scanner.nextChar();
+            long value = scanner.nextLong();
+            Card card = new Card(i + 1, op, value);
+            cards[i] = card;
         }
+        return new Test(initialValue, cards);
     }
 
-    private void runTests() {
-        int caseIndex = 1;
-        for (Test test : tests) {
-            Rational result = test.findMaximum();
-            System.out.println("Case #" + caseIndex + ": " + result.num + " " +result.den);
-            caseIndex++;
-        }
+    @Override
+    public long estimateCost(Test test) {
+        return test.cards.length;
     }
-    
-    public static void main(String[] args) throws FileNotFoundException {
+
+    @Override
+    public Rational solveCase(Test test) {
+        return test.findMaximum();
+    }
+
+    @Override
+    public void printResult(int testNumber, Rational result, FastWriter out) {
+        out.printCase(testNumber).print(' ');
+        result.print(out);
+        out.println();
+    }
+
+    public static void main(String[] args) throws FileNotFoundException, InterruptedException, ExecutionException {
         long t = System.nanoTime();
-        Operation operation = new Operation();
-        operation.scanTests(DEBUG ? new FileInputStream("resources/codejam2017/finals/B-large-practice.in") : System.in);
-        operation.runTests();
+        InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/finals/B-large-practice.in") : System.in;
+        new ParallelRunner<>(new Operation(), DEBUG ? 1 : Runtime.getRuntime().availableProcessors())
+                .setPipelined(PIPELINE_DEPTH)
+                .run(is, System.out);
         System.err.println("Operation done in " + ((System.nanoTime() - t) / 1e9) + " seconds.");
     }
 }
@@ -25,16 +25,19 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.math.BigInteger;
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The Operation problem from Google Code Jam World Finals 2017.
@@ -57,6 +60,12 @@ import java.util.Scanner;
  * discovery of the sign inverting factor used in my final solution
  * (see Operation).
  * 
+ * The population is split into islands evolving independently, each with its
+ * own random generator, on the common ForkJoinPool. Every few generations
+ * the best sequence of each island migrates to the next one, replacing its
+ * worst sequence, to spread good solutions without making all islands
+ * converge to the same local optimum.
+ * 
  * @author Salvo Isaja
  */
 public class OperationGenetic {
@@ -94,15 +103,28 @@ public class OperationGenetic {
     private static class Sequence implements Comparable {
         
         private static final int MAX_MUTATIONS_PERCENT = 33;
-        private static Random random = new SecureRandom();
+        private static final int CHECKPOINT_INTERVAL = 4;
         BigInteger initialValue;
         Card[] cards;
         Rational result;
+        // The partial result before each cards[i * CHECKPOINT_INTERVAL]
+        BigInteger[] checkpointNums;
+        BigInteger[] checkpointDens;
 
         Sequence(BigInteger initialValue, Card[] cards) {
             this.initialValue = initialValue;
             this.cards = cards;
-            computeResult();
+            checkpointNums = new BigInteger[(cards.length + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL];
+            checkpointDens = new BigInteger[checkpointNums.length];
+            computeResult(0);
+        }
+
+        /** Copies the cards and the checkpoints of the specified sequence, leaving the result to be computed. */
+        private Sequence(Sequence other) {
+            initialValue = other.initialValue;
+            cards = Arrays.copyOf(other.cards, other.cards.length);
+            checkpointNums = Arrays.copyOf(other.checkpointNums, other.checkpointNums.length);
+            checkpointDens = Arrays.copyOf(other.checkpointDens, other.checkpointDens.length);
         }
 
         private void swapCards(int i, int j) {
@@ -111,11 +133,22 @@ public class OperationGenetic {
             cards[j] = c;
         }
 
-        private void computeResult() {
-            BigInteger num = initialValue;
-            BigInteger den = BigInteger.ONE;
-            result = new Rational(initialValue);
-            for (Card card : cards) {
+        /**
+         * Computes the result assuming that cards before the specified index
+         * didn't change since the last computation. The partial result is
+         * saved every CHECKPOINT_INTERVAL cards, thus I can resume from the
+         * last checkpoint before that index instead of replaying all cards.
+         */
+        private void computeResult(int from) {
+            int start = from / CHECKPOINT_INTERVAL * CHECKPOINT_INTERVAL;
+            BigInteger num = start > 0 ? checkpointNums[start / CHECKPOINT_INTERVAL] : initialValue;
+            BigInteger den = start > 0 ? checkpointDens[start / CHECKPOINT_INTERVAL] : BigInteger.ONE;
+            for (int i = start; i < cards.length; i++) {
+                if (i % CHECKPOINT_INTERVAL == 0) {
+                    checkpointNums[i / CHECKPOINT_INTERVAL] = num;
+                    checkpointDens[i / CHECKPOINT_INTERVAL] = den;
+                }
+                Card card = cards[i];
                 BigInteger v = card.value;
                 switch (card.op) {
                     case '+':
@@ -143,11 +176,11 @@ public class OperationGenetic {
             result = new Rational(num, den);
         }
 
-        public Sequence mutate() {
-            Card[] newCards = Arrays.copyOf(cards, cards.length);
-            Sequence s = new Sequence(initialValue, newCards);
+        public Sequence mutate(SplittableRandom random) {
+            Sequence s = new Sequence(this);
             int count = random.nextInt(Math.max(s.cards.length * MAX_MUTATIONS_PERCENT / 100, 1));
             if (count < 1) count = 1;
+            int firstChanged = s.cards.length;
             for (int i = 0; i < count; i++) {
                 int from = random.nextInt(s.cards.length);
                 int to;
@@ -155,8 +188,9 @@ public class OperationGenetic {
                     to = random.nextInt(s.cards.length);
                 } while (to == from);
                 s.swapCards(from, to);
+                firstChanged = Math.min(firstChanged, Math.min(from, to));
             }
-            s.computeResult();
+            s.computeResult(firstChanged);
             return s;
         }
 
@@ -164,22 +198,21 @@ public class OperationGenetic {
          * Fisher–Yates shuffle algorithm to create a random sequence of cards.
          * Courtesy of https://stackoverflow.com/questions/1519736/random-shuffling-of-an-array
          */
-        public Sequence createShuffled() {
-            Card[] newCards = Arrays.copyOf(cards, cards.length);
-            Sequence s = new Sequence(initialValue, newCards);
-            for (int i = newCards.length - 1; i > 0; i--) {
+        public Sequence createShuffled(SplittableRandom random) {
+            Sequence s = new Sequence(this);
+            for (int i = s.cards.length - 1; i > 0; i--) {
                 int j = random.nextInt(i + 1);
                 s.swapCards(i, j);
             }
-            s.computeResult();
+            s.computeResult(0);
             return s;
         }
 
-        public void print() {
+        public void print(FastWriter out) {
             if (DEBUG) {
-                System.out.println("  " + initialValue);
-                for (Card card : cards) System.out.println("  " + card.op + " " + card.value);
-                System.out.println("  " + result.num + " " + result.den + " (" + result.doubleValue + ")");
+                out.print("  ").println(initialValue);
+                for (Card card : cards) out.print("  ").print(card.op).print(' ').println(card.value);
+                out.print("  ").print(result.num).print(' ').print(result.den).print(" (").print(result.doubleValue).println(')');
             }
         }
 
@@ -189,38 +222,143 @@ public class OperationGenetic {
         }
     }
 
+    private static class Island {
+
+        final SplittableRandom random;
+        final Sequence[] sequences;
+        Sequence best;
+
+        Island(Sequence sequence, int size, SplittableRandom random) {
+            this.random = random;
+            sequences = new Sequence[size];
+            for (int i = 0; i < size; i++) sequences[i] = sequence.createShuffled(random);
+            best = sequences[0];
+            for (Sequence s : sequences) if (s.compareTo(best) < 0) best = s;
+        }
+
+        /**
+         * Replaces the worse half of the population with mutations of the
+         * better half for the specified number of generations. I don't need
+         * the population fully sorted, just partitioned around its median,
+         * so I use a quickselect taking linear time.
+         */
+        void evolve(int generationCount) {
+            int half = sequences.length / 2;
+            for (int g = 0; g < generationCount; g++) {
+                selectBest(half);
+                for (int i = 0; i < half; i++) {
+                    Sequence s = sequences[i].mutate(random);
+                    sequences[i + half] = s;
+                    if (s.compareTo(best) < 0) best = s;
+                }
+            }
+        }
+
+        /** Moves the k best sequences at the beginning of the population, in any order. */
+        private void selectBest(int k) {
+            int lo = 0;
+            int hi = sequences.length - 1;
+            while (lo < hi) {
+                Sequence pivot = sequences[lo + random.nextInt(hi - lo + 1)];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (sequences[i].compareTo(pivot) < 0) i++;
+                    while (sequences[j].compareTo(pivot) > 0) j--;
+                    if (i <= j) {
+                        Sequence t = sequences[i];
+                        sequences[i] = sequences[j];
+                        sequences[j] = t;
+                        i++;
+                        j--;
+                    }
+                }
+                if (k <= j) hi = j;
+                else if (k >= i) lo = i;
+                else break;
+            }
+        }
+
+        /** Replaces the worst sequence of this island with the specified one. */
+        void receive(Sequence migrant) {
+            int worst = 0;
+            for (int i = 1; i < sequences.length; i++) {
+                if (sequences[i].compareTo(sequences[worst]) > 0) worst = i;
+            }
+            sequences[worst] = migrant;
+            if (migrant.compareTo(best) < 0) best = migrant;
+        }
+    }
+
+    private static class EvolveTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        final Island island;
+        final int generationCount;
+
+        EvolveTask(Island island, int generationCount) {
+            this.island = island;
+            this.generationCount = generationCount;
+        }
+
+        @Override
+        protected void compute() {
+            island.evolve(generationCount);
+        }
+    }
+
     private static class Test {
 
         static final int MAX_STABILITY_COUNT = 100;
-        Sequence[] sequences;
+        static final int MIN_ISLAND_COUNT = 4;
+        static final int MIN_ISLAND_SIZE = 8;
+        static final int MIGRATION_INTERVAL = 10;
+        final BigInteger initialValue;
+        final Card[] cards;
 
         Test(BigInteger initialValue, Card[] cards) {
-            sequences = new Sequence[cards.length * 100];
-            sequences[0] = new Sequence(initialValue, cards);
-            for (int i = 1; i < sequences.length; i++) sequences[i] = sequences[0].createShuffled();
-            Arrays.sort(sequences);
+            this.initialValue = initialValue;
+            this.cards = cards;
         }
 
-        Rational findGenetic() {
-            Rational result = sequences[0].result;
-            Sequence savedSequence = new Sequence(sequences[0].initialValue, Arrays.copyOf(sequences[0].cards, sequences[0].cards.length));
-            if (sequences[0].cards.length == 1) return result;
+        Rational findGenetic(FastWriter out) {
+            Sequence sequence = new Sequence(initialValue, cards);
+            if (cards.length == 1) return sequence.result;
+            int populationSize = cards.length * 100;
+            int islandCount = Math.max(MIN_ISLAND_COUNT, ForkJoinPool.getCommonPoolParallelism());
+            int islandSize = Math.max(populationSize / islandCount, MIN_ISLAND_SIZE);
+            SplittableRandom random = new SplittableRandom();
+            Island[] islands = new Island[islandCount];
+            for (int i = 0; i < islandCount; i++) islands[i] = new Island(sequence, islandSize, random.split());
+            Sequence best = findBest(islands);
             int stabilityCount = 0;
             while (stabilityCount < MAX_STABILITY_COUNT) {
-                for (int i = 0; i < sequences.length / 2; i++) {
-                    sequences[i + sequences.length / 2] = sequences[i].mutate();
+                if (ForkJoinPool.getCommonPoolParallelism() > 1) {
+                    List<EvolveTask> tasks = new ArrayList<>(islandCount);
+                    for (Island island : islands) tasks.add(new EvolveTask(island, MIGRATION_INTERVAL));
+                    ForkJoinTask.invokeAll(tasks);
+                } else {
+                    for (Island island : islands) island.evolve(MIGRATION_INTERVAL);
                 }
-                Arrays.sort(sequences);
-                if (sequences[0].result.doubleValue > result.doubleValue) {
-                    result = sequences[0].result;
-                    savedSequence = new Sequence(sequences[0].initialValue, Arrays.copyOf(sequences[0].cards, sequences[0].cards.length));
+                Sequence[] migrants = new Sequence[islandCount];
+                for (int i = 0; i < islandCount; i++) migrants[i] = islands[i].best;
+                for (int i = 0; i < islandCount; i++) islands[(i + 1) % islandCount].receive(migrants[i]);
+                Sequence s = findBest(islands);
+                if (s.compareTo(best) < 0) {
+                    best = s;
                     stabilityCount = 0;
                 } else {
-                    stabilityCount++;
+                    stabilityCount += MIGRATION_INTERVAL;
                 }
             }
-            savedSequence.print();
-            return result;
+            best.print(out);
+            return best.result;
+        }
+
+        private static Sequence findBest(Island[] islands) {
+            Sequence best = islands[0].best;
+            for (Island island : islands) if (island.best.compareTo(best) < 0) best = island.best;
+            return best;
         }
     }
 
@@ -228,14 +366,14 @@ public class OperationGenetic {
     private final List<Test> tests = new ArrayList<>();
 
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is)) {
             int testCount = scanner.nextInt();
             for (int t = 0; t < testCount; t++) {
                 BigInteger initialValue = scanner.nextBigInteger();
                 int cardCount = scanner.nextInt();
                 Card[] cards = new Card[cardCount];
                 for (int i = 0; i < cardCount; i++) {
-                    char op = scanner.next().charAt(0);
+                    char op = scanner.nextChar();
                     BigInteger value = scanner.nextBigInteger();
                     Card card = new Card(i + 1, op, value);
                     cards[i] = card;
@@ -246,11 +384,11 @@ public class OperationGenetic {
         }
     }
 
-    private void runTests() {
+    private void runTests(FastWriter out) {
         int caseIndex = 1;
         for (Test test : tests) {
-            Rational result = test.findGenetic();
-            System.out.println("Case #" + caseIndex + ": " + result.num + " " +result.den);
+            Rational result = test.findGenetic(out);
+            out.printCase(caseIndex).print(' ').print(result.num).print(' ').println(result.den);
             caseIndex++;
         }
     }
@@ -258,6 +396,8 @@ public class OperationGenetic {
     public static void main(String[] args) throws FileNotFoundException {
         OperationGenetic operation = new OperationGenetic();
         operation.scanTests(DEBUG ? new FileInputStream("resources/codejam2017/finals/B-small-practice.in") : System.in);
-        operation.runTests();
+        try (FastWriter out = new FastWriter(System.out)) {
+            operation.runTests(out);
+        }
     }
 }
@@ -25,15 +25,30 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.SplittableRandom;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The Spanning Planning problem from Google Code Jam World Finals 2017.
@@ -59,6 +74,23 @@ import java.util.TreeMap;
  * very difficult to find!).
  * Since it seems to me more elegant to use answers with small number of nodes
  * when possible, I still use brute force for up to 8 nodes, as it is tractable.
+ *
+ * The determinant used to be computed with floating point Gaussian elimination
+ * on a new matrix for each graph, treating tiny pivots as zero. Now it uses
+ * the Bareiss algorithm on longs, in a workspace reused across graphs, thus
+ * counts are exact. Counts beyond the limits do not fit in a long, but we can
+ * stop as soon as a minor proves them too large. Precalculation went from
+ * 150 to 116 seconds on my test machine.
+ * Moreover, the randomized search adds edges one at a time, thus it now
+ * updates the count incrementally in O(n^2) per edge (see
+ * SpanningTreeCounter), and moves to the next graph as soon as the count is
+ * too large, since adding edges never removes spanning trees. This brought
+ * precalculation down to about 60 seconds, mostly spent in brute force.
+ *
+ * Precalculated answers are kept as text in C-precalc.in, and converted with
+ * --convertPrecalcs to C-precalc.bin, with a fixed size record for each
+ * spanning tree count. At startup the latter is memory mapped, and each test
+ * case just decodes the record at its index, instead of parsing all answers.
  * 
  * @author Salvo Isaja
  */
@@ -73,6 +105,23 @@ public class SpanningPlanning {
             this.nodeCount = nodeCount;
             this.edges = edges;
         }
+
+        /**
+         * Returns whether this graph is a better answer than the other, that
+         * is it has fewer nodes or, on a tie, its edges read as a binary
+         * number are smaller. The latter is the graph the sequential brute
+         * force finds first, thus workers pick it regardless of their timing.
+         */
+        boolean isBetterThan(Graph other) {
+            if (nodeCount != other.nodeCount) return nodeCount < other.nodeCount;
+            int i = edges.length() - 1;
+            int j = other.edges.length() - 1;
+            while (i == j && i >= 0) {
+                i = edges.previousSetBit(i - 1);
+                j = other.edges.previousSetBit(j - 1);
+            }
+            return i < j;
+        }
     }
     
     private static final boolean DEBUG = false;
@@ -81,9 +130,38 @@ public class SpanningPlanning {
     private static final int MAX_EDGES = MAX_NODES * (MAX_NODES - 1) / 2;
     private static final int MIN_SPANNING_TREES = 3;
     private static final int MAX_SPANNING_TREES = 10000;
+    /** Whether the randomized search counts spanning trees with SpanningTreeCounter. */
+    private static final boolean INCREMENTAL_COUNTING = true;
+    private static final String PRECALC_TEXT_FILE = "resources/codejam2017/finals/C-precalc.in";
+    private static final String PRECALC_FILE = "resources/codejam2017/finals/C-precalc.bin";
+    /** Magic number at the beginning of the binary precalc file, "SPPC" in ASCII. */
+    private static final int PRECALC_MAGIC = 0x53505043;
+    private static final int PRECALC_HEADER_SIZE = 16;
+    private static final int PRECALC_RECORD_SIZE = 32;
+    /** Position of the node count in the last long of a precalc record, above the edges. */
+    private static final int NODE_COUNT_SHIFT = 56;
+    /** Approximate count of edge combinations to check in each brute force task. */
+    private static final int COMBINATIONS_PER_TASK = 1 << 16;
     private final int[] edgeFirstNodes;
     private final int[] edgeSecondNodes;
-    private final TreeMap<Integer, Graph> answers = new TreeMap<>();
+    /**
+     * Upper bounds for the leading principal minors of the reduced Laplacian
+     * matrix, if the graph has at most MAX_SPANNING_TREES spanning trees.
+     * The minor of size k + 1 of the m by m matrix counts the spanning trees
+     * of the graph with the remaining m - k nodes merged together. Each of
+     * them is a forest of the original graph, lacking m - k - 1 edges from
+     * at least one of its spanning trees, thus their count is at most the
+     * spanning tree count times (m choose m - k - 1).
+     */
+    private final long[][] maxMinors;
+    /** Workspace for the reduced Laplacian matrix, stored row by row. */
+    private final long[] laplacian = new long[(MAX_NODES - 1) * (MAX_NODES - 1)];
+    /** Workspace for the union-find in isConnected. */
+    private final int[] nodeRoots = new int[MAX_NODES];
+    /** Best graph found for each spanning tree count, shared across workers. */
+    private final ConcurrentHashMap<Integer, Graph> answers;
+    /** Answers mapped from the binary precalc file, see writePrecalcs. */
+    private MappedByteBuffer precalcs;
 
     private static void debugPrint(String s) {
         if (DEBUG) System.out.println(s);
@@ -99,47 +177,237 @@ public class SpanningPlanning {
         }
     }
 
-    private static void printMatrix(double[][] m) {
+    private void printMatrix(int m) {
         if (DEBUG) {
-            for (double[] row : m) {
-                for (int j = 0; j < row.length; j++) System.out.print("\t" + row[j]);
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < m; j++) System.out.print("\t" + laplacian[i * m + j]);
                 System.out.println();
             }
         }
     }
 
-    // Courtesy of https://en.wikipedia.org/wiki/Gaussian_elimination
-    private static double computeDeterminant(double[][] m) {
-        for (int pivot = 0; pivot < m.length; pivot++) {
-            int iMax = pivot;
-            double aMax = Math.abs(m[pivot][pivot]);
-            for (int i = pivot + 1; i < m.length; i++) {
-                double a = Math.abs(m[i][pivot]);
-                if (a > aMax) {
-                    iMax = i;
-                    aMax = a;
+    /**
+     * Computes the determinant of the m by m matrix in laplacian using the
+     * Bareiss algorithm, courtesy of https://en.wikipedia.org/wiki/Bareiss_algorithm
+     * This is Gaussian elimination without fractions: at step k, each entry
+     * is updated as a 2 by 2 determinant with the pivot, divided exactly by
+     * the previous pivot, and the pivot itself is the leading principal
+     * minor of size k + 1. Being the matrix a reduced Laplacian of a connected
+     * graph, all leading principal minors are positive and no pivoting is
+     * needed. Being the matrix symmetric, only its upper triangle is updated.
+     * After step k, diagonal entries are principal minors of size k + 2 too,
+     * thus returns Integer.MAX_VALUE as soon as one of them proves that there
+     * are more than MAX_SPANNING_TREES spanning trees (see maxMinors).
+     * Throws ArithmeticException if an intermediate value overflows a long.
+     */
+    private int computeDeterminant(int m) {
+        long[] a = laplacian;
+        long previous = 1;
+        for (int k = 0; k < m; k++) {
+            long pivot = a[k * m + k];
+            if (pivot > maxMinors[m][k]) return Integer.MAX_VALUE;
+            int shift = Long.numberOfTrailingZeros(previous);
+            long inverse = inverseOf(previous >> shift);
+            for (int i = k + 1; i < m; i++) {
+                long f = a[k * m + i];
+                for (int j = i; j < m; j++) {
+                    a[i * m + j] = (Math.subtractExact(Math.multiplyExact(a[i * m + j], pivot), Math.multiplyExact(f, a[k * m + j])) >> shift) * inverse;
+                }
+                if (a[i * m + i] > maxMinors[m][k + 1]) return Integer.MAX_VALUE;
+            }
+            previous = pivot;
+        }
+        return (int) previous;
+    }
+
+    /** Returns the inverse of the specified odd number modulo 2^64, by Newton's iteration. */
+    private static long inverseOf(long odd) {
+        long inverse = odd; // correct to 3 bits, doubled by each iteration
+        for (int i = 0; i < 5; i++) inverse *= 2 - odd * inverse;
+        return inverse;
+    }
+
+    /**
+     * Like computeDeterminant, but with BigInteger arithmetic, in case
+     * intermediate values do not fit in a long. I have only seen this happen
+     * for graphs with much more than MAX_SPANNING_TREES spanning trees, but
+     * I could not prove it, thus this is the slow but safe way.
+     */
+    private int computeDeterminantExactly(int m) {
+        BigInteger[] a = new BigInteger[m * m];
+        for (int i = 0; i < m * m; i++) a[i] = BigInteger.valueOf(laplacian[i]);
+        BigInteger previous = BigInteger.ONE;
+        for (int k = 0; k < m; k++) {
+            BigInteger pivot = a[k * m + k];
+            for (int i = k + 1; i < m; i++) {
+                for (int j = k + 1; j < m; j++) {
+                    a[i * m + j] = a[i * m + j].multiply(pivot).subtract(a[i * m + k].multiply(a[k * m + j])).divide(previous);
+                }
+            }
+            previous = pivot;
+        }
+        return previous.bitLength() < Integer.SIZE ? previous.intValue() : Integer.MAX_VALUE;
+    }
+
+    /** Returns whether the specified graph is connected, using a union-find on nodeRoots. */
+    private boolean isConnected(int nodeCount, BitSet edges) {
+        for (int i = 0; i < nodeCount; i++) nodeRoots[i] = i;
+        int components = nodeCount;
+        for (int i = edges.nextSetBit(0); i >= 0; i = edges.nextSetBit(i + 1)) {
+            int a = findRoot(nodeRoots, edgeFirstNodes[i]);
+            int b = findRoot(nodeRoots, edgeSecondNodes[i]);
+            if (a != b) {
+                nodeRoots[a] = b;
+                components--;
+            }
+        }
+        return components == 1;
+    }
+
+    private static int findRoot(int[] roots, int node) {
+        while (roots[node] != node) {
+            roots[node] = roots[roots[node]];
+            node = roots[node];
+        }
+        return node;
+    }
+
+    /**
+     * Counts the spanning trees of a graph growing one edge at a time, as in
+     * the randomized search. While the graph is disconnected, the count is
+     * zero and I just keep a union-find of nodes. As soon as the graph gets
+     * connected, I compute the count and the adjugate of the reduced
+     * Laplacian matrix L, that is adj = count * L^-1. From then on, adding an
+     * edge between a and b is the rank-1 update L + u u^T, with u = e_a - e_b
+     * without the last node. By the matrix determinant lemma the new count is
+     * count + u^T adj u, and by the Sherman-Morrison formula the new adjugate
+     * is (newCount * adj - (adj u)(adj u)^T) / count, with exact division.
+     * This takes O(n^2) per edge instead of O(n^3).
+     * Adding edges never removes spanning trees, thus once there are more
+     * than MAX_SPANNING_TREES I just report Integer.MAX_VALUE. This keeps
+     * the adjugate small: its diagonal holds principal minors, at most count
+     * times m (see maxMinors), bounding all other entries too.
+     */
+    private final class SpanningTreeCounter {
+        private final long[] adjugate = new long[(MAX_NODES - 1) * (MAX_NODES - 1)];
+        private final long[] adjugateTimesU = new long[MAX_NODES - 1];
+        private final int[] roots = new int[MAX_NODES];
+        private BitSet edges;
+        private int nodeCount;
+        private int components;
+        /** Count of spanning trees, 0 if disconnected, beyond MAX_SPANNING_TREES if saturated. */
+        private long count;
+        /** Whether the adjugate overflowed, thus each count is computed from scratch. */
+        private boolean fromScratch;
+
+        /** Starts counting for the specified graph, still without edges, to which the caller adds edges. */
+        void reset(int nodeCount, BitSet edges) {
+            this.nodeCount = nodeCount;
+            this.edges = edges;
+            for (int i = 0; i < nodeCount; i++) roots[i] = i;
+            components = nodeCount;
+            count = 0;
+            fromScratch = false;
+        }
+
+        /** Returns the spanning tree count after the caller added the specified edge to the graph. */
+        int addEdge(int edgeIndex) {
+            int a = edgeFirstNodes[edgeIndex];
+            int b = edgeSecondNodes[edgeIndex];
+            if (components > 1) {
+                int ra = findRoot(roots, a);
+                int rb = findRoot(roots, b);
+                if (ra != rb) {
+                    roots[ra] = rb;
+                    components--;
                 }
+                if (components > 1) return 0;
+                initialize();
+            } else if (fromScratch) {
+                return findSpanningTreeCount(nodeCount, edges);
+            } else if (count <= MAX_SPANNING_TREES) {
+                update(a, b);
+            }
+            return count <= MAX_SPANNING_TREES ? (int) count : Integer.MAX_VALUE;
+        }
+
+        private void initialize() {
+            int m = nodeCount - 1;
+            fillLaplacian(m, edges);
+            try {
+                count = computeDeterminant(m);
+            } catch (ArithmeticException e) {
+                // maxMinors bounds pivots only, other entries may still overflow
+                fromScratch = true;
+                count = findSpanningTreeCount(nodeCount, edges);
+                return;
             }
-            // Treat very small pivot values as zero to avoid surprising results
-            // due to floating point precision when multiplying by a large value
-            if (aMax < 1.0e-6) return 0.0;
-            double[] temp = m[pivot];
-            m[pivot] = m[iMax];
-            m[iMax] = temp;
-            aMax = m[pivot][pivot];
-            for (int i = pivot + 1; i < m.length; i++) {
-                double f = m[i][pivot] / aMax;
-                for (int j = pivot + 1; j < m.length; j++) m[i][j] -= m[pivot][j] * f;
-                m[i][pivot] = 0.0;
+            if (count > MAX_SPANNING_TREES) return;
+            fillLaplacian(m, edges);
+            try {
+                computeAdjugate(m);
+            } catch (ArithmeticException e) {
+                fromScratch = true;
             }
         }
-        // Trivially compute determinant as product of main diagonal
-        double result = 1.0;
-        for (int i = 0; i < m.length; i++) result *= m[i][i];
-        return result;
+
+        /**
+         * Computes the adjugate of the m by m matrix in laplacian, by
+         * fraction-free Gauss-Jordan elimination: like the Bareiss algorithm
+         * in computeDeterminant, but eliminating rows above the pivot too, and
+         * applying the same steps to an identity matrix, that becomes the
+         * adjugate as the Laplacian becomes count times the identity.
+         */
+        private void computeAdjugate(int m) {
+            long[] l = laplacian;
+            Arrays.fill(adjugate, 0, m * m, 0);
+            for (int i = 0; i < m; i++) adjugate[i * m + i] = 1;
+            long previous = 1;
+            for (int k = 0; k < m; k++) {
+                long pivot = l[k * m + k];
+                for (int i = 0; i < m; i++) {
+                    if (i == k) continue;
+                    long f = l[i * m + k];
+                    for (int j = k + 1; j < m; j++) {
+                        l[i * m + j] = Math.subtractExact(Math.multiplyExact(l[i * m + j], pivot), Math.multiplyExact(f, l[k * m + j])) / previous;
+                    }
+                    for (int j = 0; j < m; j++) {
+                        adjugate[i * m + j] = Math.subtractExact(Math.multiplyExact(adjugate[i * m + j], pivot), Math.multiplyExact(f, adjugate[k * m + j])) / previous;
+                    }
+                }
+                previous = pivot;
+            }
+        }
+
+        private void update(int a, int b) {
+            int m = nodeCount - 1;
+            long[] w = adjugateTimesU;
+            // The second node of an edge is the largest, thus the only one
+            // that may be the last node, missing from the reduced Laplacian
+            for (int i = 0; i < m; i++) w[i] = b < m ? adjugate[i * m + a] - adjugate[i * m + b] : adjugate[i * m + a];
+            long next = count + (b < m ? w[a] - w[b] : w[a]);
+            if (next <= MAX_SPANNING_TREES) {
+                for (int i = 0; i < m; i++) {
+                    for (int j = 0; j < m; j++) adjugate[i * m + j] = (next * adjugate[i * m + j] - w[i] * w[j]) / count;
+                }
+            }
+            count = next;
+        }
     }
 
     public SpanningPlanning() {
+        answers = new ConcurrentHashMap<>();
+        maxMinors = new long[MAX_NODES][];
+        long[] binomials = { 1 };
+        for (int m = 1; m < MAX_NODES; m++) {
+            long[] next = new long[m + 1];
+            next[0] = 1;
+            next[m] = 1;
+            for (int k = 1; k < m; k++) next[k] = binomials[k - 1] + binomials[k];
+            binomials = next;
+            maxMinors[m] = new long[m];
+            for (int k = 0; k < m; k++) maxMinors[m][k] = MAX_SPANNING_TREES * binomials[m - k - 1];
+        }
         edgeFirstNodes = new int[MAX_EDGES];
         edgeSecondNodes = new int[MAX_EDGES];
         int fi = 0;
@@ -155,31 +423,60 @@ public class SpanningPlanning {
         }
     }
 
-    private int findSpanningTreeCount(int nodeCount, BitSet edges) {
+    /**
+     * Creates a worker for another thread, sharing tables and answers with
+     * the specified instance, but with its own workspaces.
+     */
+    private SpanningPlanning(SpanningPlanning shared) {
+        answers = shared.answers;
+        maxMinors = shared.maxMinors;
+        edgeFirstNodes = shared.edgeFirstNodes;
+        edgeSecondNodes = shared.edgeSecondNodes;
+    }
+
+    /**
+     * Returns the exact count of spanning trees of the specified graph if
+     * at most MAX_SPANNING_TREES, otherwise a larger count, possibly
+     * Integer.MAX_VALUE if not computed exactly.
+     */
+    int findSpanningTreeCount(int nodeCount, BitSet edges) {
+        if (!isConnected(nodeCount, edges)) return 0;
         // Compute the number of spanning trees using Kirchoff's theorem,
         // courtesy of https://en.wikipedia.org/wiki/Kirchhoff%27s_theorem
-        // Construct the Laplacian matrix without the last row and column
-        double[][] laplacian = new double[nodeCount - 1][nodeCount - 1];
+        int m = nodeCount - 1;
+        fillLaplacian(m, edges);
+        try {
+            return computeDeterminant(m);
+        } catch (ArithmeticException e) {
+            fillLaplacian(m, edges);
+            return computeDeterminantExactly(m);
+        }
+    }
+
+    /** Constructs the Laplacian matrix without the last row and column, that is m = nodeCount - 1. */
+    private void fillLaplacian(int m, BitSet edges) {
+        Arrays.fill(laplacian, 0, m * m, 0);
         for (int i = edges.nextSetBit(0); i >= 0; i = edges.nextSetBit(i + 1)) {
             int a = edgeFirstNodes[i];
             int b = edgeSecondNodes[i];
-            if (a < nodeCount - 1) {
-                laplacian[a][a] += 1.0;
-                if (b < nodeCount - 1) laplacian[a][b] = -1.0;
+            if (a < m) {
+                laplacian[a * m + a]++;
+                if (b < m) laplacian[a * m + b] = -1;
             }
-            if (b < nodeCount - 1) {
-                laplacian[b][b] += 1.0;
-                if (a < nodeCount - 1) laplacian[b][a] = -1.0;
+            if (b < m) {
+                laplacian[b * m + b]++;
+                if (a < m) laplacian[b * m + a] = -1;
             }
         }
-        double d = computeDeterminant(laplacian);
-        return d > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.round(d);
     }
 
     private void tryAddAnswer(int spanningTreeCount, int nodeCount, BitSet edges) {
         if (spanningTreeCount >= MIN_SPANNING_TREES && spanningTreeCount <= MAX_SPANNING_TREES) {
             Graph c = answers.get(spanningTreeCount);
-            if (c == null || nodeCount < c.nodeCount) answers.put(spanningTreeCount, new Graph(nodeCount, (BitSet) edges.clone()));
+            Graph g = new Graph(nodeCount, edges);
+            if (c != null && !g.isBetterThan(c)) return;
+            g = new Graph(nodeCount, (BitSet) edges.clone());
+            answers.merge(spanningTreeCount, g, (older, newer) -> newer.isBetterThan(older) ? newer : older);
             if (c == null) debugPrint("Answers found: " + answers.size());
         }
     }
@@ -198,54 +495,98 @@ public class SpanningPlanning {
         return new Graph(nodeCount, edges);
     }
 
+    /** Checks a range of edge combinations for small graphs, splitting it in halves until small enough. */
+    private final class BruteForceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int nodeCount;
+        private final long begin;
+        private final long end;
+
+        BruteForceTask(int nodeCount, long begin, long end) {
+            this.nodeCount = nodeCount;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - begin > COMBINATIONS_PER_TASK) {
+                long middle = (begin + end) >>> 1;
+                invokeAll(new BruteForceTask(nodeCount, begin, middle), new BruteForceTask(nodeCount, middle, end));
+                return;
+            }
+            SpanningPlanning worker = new SpanningPlanning(SpanningPlanning.this);
+            for (long v = begin; v < end; v++) {
+                BitSet edges = BitSet.valueOf(new long[] { v });
+                int spanningTreeCount = worker.findSpanningTreeCount(nodeCount, edges);
+                worker.tryAddAnswer(spanningTreeCount, nodeCount, edges);
+            }
+        }
+    }
+
+    /** Adds edges to random graphs until all answers are found. */
+    private void searchRandomly(SplittableRandom random) {
+        SpanningTreeCounter counter = new SpanningTreeCounter();
+        while (answers.size() < MAX_SPANNING_TREES - MIN_SPANNING_TREES + 1) {
+            int nodeCount = MAX_SMALL_NODES + random.nextInt(MAX_NODES - MAX_SMALL_NODES + 1);
+            int edgeCount = nodeCount * (nodeCount - 1) / 2;
+            BitSet edges = new BitSet(edgeCount);
+            counter.reset(nodeCount, edges);
+            for (int i = 0; i < 1000 && edges.cardinality() < edgeCount; i++) {
+                int edgeIndex = random.nextInt(edgeCount);
+                if (edges.get(edgeIndex)) continue;
+                edges.set(edgeIndex);
+                int spanningTreeCount = INCREMENTAL_COUNTING ? counter.addEdge(edgeIndex) : findSpanningTreeCount(nodeCount, edges);
+                // Adding edges never removes spanning trees, nothing more to find here
+                if (spanningTreeCount > MAX_SPANNING_TREES) break;
+                tryAddAnswer(spanningTreeCount, nodeCount, edges);
+            }
+        }
+    }
+
     /**
      * Precalculate answers for all possible spanning trees within the limits.
      * This is the core of the algorithm described above.
      * It completes in less than two minutes on my i5-3570K.
+     * Both brute force and randomization run on the common ForkJoinPool:
+     * the former splitting edge combinations in ranges, the latter with one
+     * random walker per thread, each with its own SplittableRandom. Workers
+     * put their answers in a concurrent map, keeping the best graph for each
+     * spanning tree count.
      */
-    private void precalculateAnswers() {
+    private void precalculateAnswers(FastWriter out) {
         long time = System.nanoTime();
-        Random random = new Random();
         // Use brute force for small node counts
         for (int nodeCount = 3; nodeCount < MAX_SMALL_NODES; nodeCount++) {
             debugPrint("Node count: " + nodeCount);
             int l = 1 << Math.min(nodeCount * (nodeCount - 1) / 2, 26); // no answers found for 8 nodes after 26 edges
-            for (long v = 1; v < l; v++) {
-                BitSet edges = BitSet.valueOf(new long[] { v });
-                int spanningTreeCount = findSpanningTreeCount(nodeCount, edges);
-                tryAddAnswer(spanningTreeCount, nodeCount, edges);
-            }
+            ForkJoinPool.commonPool().invoke(new BruteForceTask(nodeCount, 1, l));
         }
         // It seems that reaching an answer with 22 spanning trees is very
         // difficult even after long randomization. Let's construct a cycle graph.
         answers.put(22, createCycleGraph(22));
         debugPrint("Beginning randomization.");
         // Randomize everything else
-        while (answers.size() < MAX_SPANNING_TREES - MIN_SPANNING_TREES + 1) {
-            int nodeCount = MAX_SMALL_NODES + random.nextInt(MAX_NODES - MAX_SMALL_NODES + 1);
-            int edgeCount = nodeCount * (nodeCount - 1) / 2;
-            BitSet edges = new BitSet(edgeCount);
-            for (int i = 0; i < 1000 && edges.cardinality() < edgeCount; i++) {
-                int edgeIndex = random.nextInt(edgeCount);
-                if (edges.get(edgeIndex)) continue;
-                edges.set(edgeIndex);
-                int spanningTreeCount = findSpanningTreeCount(nodeCount, edges);
-                tryAddAnswer(spanningTreeCount, nodeCount, edges);
-            }
+        SplittableRandom random = new SplittableRandom();
+        List<ForkJoinTask<?>> walkers = new ArrayList<>();
+        for (int i = 0; i < ForkJoinPool.getCommonPoolParallelism(); i++) {
+            SpanningPlanning worker = new SpanningPlanning(this);
+            SplittableRandom walkerRandom = random.split();
+            walkers.add(ForkJoinPool.commonPool().submit(() -> worker.searchRandomly(walkerRandom)));
         }
+        walkers.forEach(ForkJoinTask::join);
         debugPrint("Found all answers in " + ((System.nanoTime() - time) / 1e9) + " seconds");
-        answers.forEach((k, v) -> {
-            StringBuilder sb = new StringBuilder();
-            sb.append(k).append('\t').append(v.nodeCount).append('\t').append(v.edges.cardinality());
+        new TreeMap<>(answers).forEach((k, v) -> {
+            out.print(k).print('\t').print(v.nodeCount).print('\t').print(v.edges.cardinality());
             for (int i = v.edges.nextSetBit(0); i >= 0; i = v.edges.nextSetBit(i + 1)) {
-                sb.append('\t').append(i);
+                out.print('\t').print(i);
             }
-            System.out.println(sb.toString());
+            out.println();
         });
     }
 
-    private void loadPrecalcs(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+    private void loadTextPrecalcs(InputStream is) {
+        try (FastScanner scanner = new FastScanner(is)) {
             while (scanner.hasNext()) {
                 int spanningTreeCount = scanner.nextInt();
                 int nodeCount = scanner.nextInt();
@@ -255,21 +596,76 @@ public class SpanningPlanning {
                 answers.put(spanningTreeCount, new Graph(nodeCount, bs));
             }
         }
+    }
+
+    /**
+     * Writes the answers in the binary precalc format: after a header with
+     * magic number, range of spanning tree counts and record size, a record
+     * for each spanning tree count in the range. Each record is made of four
+     * longs, holding the edges as a bit mask, with the node count in the top
+     * byte of the last long, or zero if there is no answer.
+     */
+    private void writePrecalcs(OutputStream os) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+            out.writeInt(PRECALC_MAGIC);
+            out.writeInt(MIN_SPANNING_TREES);
+            out.writeInt(MAX_SPANNING_TREES);
+            out.writeInt(PRECALC_RECORD_SIZE);
+            for (int k = MIN_SPANNING_TREES; k <= MAX_SPANNING_TREES; k++) {
+                Graph g = answers.get(k);
+                long[] words = g != null ? g.edges.toLongArray() : new long[0];
+                for (int i = 0; i < PRECALC_RECORD_SIZE / Long.BYTES; i++) {
+                    long word = i < words.length ? words[i] : 0;
+                    if (i == PRECALC_RECORD_SIZE / Long.BYTES - 1 && g != null) word |= (long) g.nodeCount << NODE_COUNT_SHIFT;
+                    out.writeLong(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps the specified file in the binary precalc format, so that answers
+     * are found by index, decoding just the ones requested.
+     */
+    private void loadPrecalcs(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            precalcs = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (precalcs.getInt(0) != PRECALC_MAGIC
+                || precalcs.getInt(4) != MIN_SPANNING_TREES
+                || precalcs.getInt(8) != MAX_SPANNING_TREES
+                || precalcs.getInt(12) != PRECALC_RECORD_SIZE) {
+            throw new IllegalStateException("Invalid precalc file " + fileName);
+        }
         if (DEBUG) {
-            answers.forEach((k, v) -> {
-                int spanningTreeCount = findSpanningTreeCount(v.nodeCount, v.edges);
+            for (int k = MIN_SPANNING_TREES; k <= MAX_SPANNING_TREES; k++) {
+                Graph g = findAnswer(k);
+                if (g == null) continue;
+                int spanningTreeCount = findSpanningTreeCount(g.nodeCount, g.edges);
                 if (k != spanningTreeCount) debugPrint("Wrong spanning tree count " + spanningTreeCount + " expected " + k);
-            });
+            }
         }
     }
 
-    private void run(int caseIndex, int targetCount) {
-        Graph c = answers.get(targetCount);
+    /** Returns the precalculated graph with the specified spanning tree count, or null if there is none. */
+    private Graph findAnswer(int spanningTreeCount) {
+        if (spanningTreeCount < MIN_SPANNING_TREES || spanningTreeCount > MAX_SPANNING_TREES) return null;
+        int offset = PRECALC_HEADER_SIZE + (spanningTreeCount - MIN_SPANNING_TREES) * PRECALC_RECORD_SIZE;
+        long[] words = new long[PRECALC_RECORD_SIZE / Long.BYTES];
+        for (int i = 0; i < words.length; i++) words[i] = precalcs.getLong(offset + i * Long.BYTES);
+        int nodeCount = (int) (words[words.length - 1] >>> NODE_COUNT_SHIFT);
+        if (nodeCount == 0) return null;
+        words[words.length - 1] &= (1L << NODE_COUNT_SHIFT) - 1;
+        return new Graph(nodeCount, BitSet.valueOf(words));
+    }
+
+    private void run(int caseIndex, int targetCount, FastWriter out) {
+        Graph c = findAnswer(targetCount);
         if (c == null) {
-            System.out.println("Case #" + caseIndex + ": not found");
+            out.printCase(caseIndex).println(" not found");
             return;
         }
-        System.out.println("Case #" + caseIndex + ": " + c.nodeCount);
+        out.printCase(caseIndex).print(' ').println(c.nodeCount);
         if (!DEBUG) {
             int[][] thereIsNoSpoon = new int[c.nodeCount][c.nodeCount];
             for (int i = c.edges.nextSetBit(0); i >= 0; i = c.edges.nextSetBit(i + 1)) {
@@ -277,38 +673,45 @@ public class SpanningPlanning {
                 thereIsNoSpoon[edgeSecondNodes[i]][edgeFirstNodes[i]] = 1;
             }
             for (int i = 0; i < c.nodeCount; i++) {
-                for (int j = 0; j < c.nodeCount; j++) System.out.print(thereIsNoSpoon[i][j]);
-                System.out.println();
+                for (int j = 0; j < c.nodeCount; j++) out.print((char) ('0' + thereIsNoSpoon[i][j]));
+                out.println();
             }
         }
     }
 
-    private void testAll() {
+    private void testAll(FastWriter out) {
         for (int i = 3; i <= 10000; i++) {
-            run(i, i);
+            run(i, i, out);
         }
     }
     
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int t = 0; t < testCount; t++) {
                 int targetCount = scanner.nextInt();
-                run(t + 1, targetCount);
+                run(t + 1, targetCount, out);
             }
         }
     }
 
-    public static void main(String[] args) throws FileNotFoundException {
+    public static void main(String[] args) throws IOException {
         long t = System.nanoTime();
         SpanningPlanning sp = new SpanningPlanning();
         List<String> argList = Arrays.asList(args);
         if (argList.contains("--createPrecalcs")) {
-            sp.precalculateAnswers();
+            try (FastWriter out = new FastWriter(System.out)) {
+                sp.precalculateAnswers(out);
+            }
+        } else if (argList.contains("--convertPrecalcs")) {
+            sp.loadTextPrecalcs(new FileInputStream(PRECALC_TEXT_FILE));
+            sp.writePrecalcs(new FileOutputStream(PRECALC_FILE));
         } else {
-            sp.loadPrecalcs(new FileInputStream("resources/codejam2017/finals/C-precalc.in"));
+            sp.loadPrecalcs(PRECALC_FILE);
             if (argList.contains("--testAll")) {
-                sp.testAll();
+                try (FastWriter out = new FastWriter(System.out)) {
+                    sp.testAll(out);
+                }
             } else {
                 sp.scanTests(DEBUG ? new FileInputStream("resources/codejam2017/finals/C-small-practice.in") : System.in);
             }
@@ -25,6 +25,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
@@ -34,7 +36,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
 
 /**
@@ -162,10 +163,10 @@ public class StackManagementCodejam {
             return false;
         }
 
-        void run() {
+        void run(FastWriter out) {
             debugPrint("Case #" + testIndex + ", " + stacks.size() + " stacks");
             boolean b = solve();
-            System.out.println("Case #" + testIndex + ": " + (b ? "POSSIBLE" : "IMPOSSIBLE"));
+            out.printCase(testIndex).print(' ').println(b ? "POSSIBLE" : "IMPOSSIBLE");
         }
     }
     
@@ -177,7 +178,7 @@ public class StackManagementCodejam {
     }
 
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int premadeStackCount = scanner.nextInt();
             premadeStacks = new ArrayList<>(premadeStackCount);
             for (int i = 0; i < premadeStackCount; i++) {
@@ -202,7 +203,7 @@ public class StackManagementCodejam {
                     stacks.add(stack);
                 }
                 Test test = new Test(t, stacks);
-                test.run();
+                test.run(out);
             }
         }
     }
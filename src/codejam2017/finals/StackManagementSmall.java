@@ -25,6 +25,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
@@ -32,7 +34,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 /**
  * The Stack Management problem from Google Code Jam World Finals 2017.
@@ -157,14 +158,14 @@ public class StackManagementSmall {
         return false;
     }
 
-    private void run(int testIndex, List<Stack> stacks) {
+    private void run(int testIndex, List<Stack> stacks, FastWriter out) {
         debugPrint("Case #" + testIndex + ", " + stacks.size() + " stacks");
         boolean b = doMove(stacks);
-        System.out.println("Case #" + testIndex + ": " + (b ? "POSSIBLE" : "IMPOSSIBLE"));
+        out.printCase(testIndex).print(' ').println(b ? "POSSIBLE" : "IMPOSSIBLE");
     }
     
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int premadeStackCount = scanner.nextInt();
             premadeStacks = new ArrayList<>(premadeStackCount);
             for (int i = 0; i < premadeStackCount; i++) {
@@ -188,7 +189,7 @@ public class StackManagementSmall {
                     }
                     stacks.add(stack);
                 }
-                run(t, stacks);
+                run(t, stacks, out);
             }
         }
     }
@@ -25,17 +25,19 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.CaseSolver;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
+import codejam.common.ParallelRunner;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * The Teleporters problem from Google Code Jam World Finals 2017.
@@ -69,13 +71,42 @@ import java.util.concurrent.Future;
  * 
  * With this algorithm, a pool of 4 threads is able to process the large
  * dataset in a little more than 2 minutes on my i5-3570K.
+ *
+ * Since almost all of that time is spent relaxing radii over the distance
+ * matrix, the matrix is stored row by row in a single array, and the
+ * relaxation of each bubble is a single loop over a contiguous row, without
+ * skipping the teleporter itself (see relax).
+ *
+ * Yet, on the large dataset most of the time was spent on test cases
+ * that never converge to a pair of fixed steps: some bubbles are bounced
+ * along two different cycles of teleporters, whose growth differs by a
+ * few units per step, and steps keep drifting for hundreds of thousands of
+ * teleportations until the faster cycle takes over. A period detector
+ * would not help, since there is no period until then. What helps is that,
+ * as soon as every bubble contains all teleporters, the minimum radii stay
+ * 0 and the maximum radii follow R(t + 1) = A x R(t), where "x" is the
+ * matrix product of the max-plus algebra (max in place of sum, sum in
+ * place of product) and A is the distance matrix. Similarly, as long as no
+ * bubble contains any teleporter, the minimum radii follow the same law,
+ * with signs reversed. Thus the radii after any count of teleportations can
+ * be computed exactly from powers of A obtained by repeated squaring, for
+ * whatever transient and period. And since if a bubble touches Care-a-lot
+ * all bubbles do one teleportation later (by the triangle inequality),
+ * the first teleportation touching Care-a-lot, or leaving the contracting
+ * regime, can be found by binary lifting, that is O(n^3 log t) instead of
+ * O(n^2 t). See leap. This brings the large dataset down to a few seconds.
+ *
+ * Bubbles are relaxed independently of each other within a teleportation,
+ * thus test cases with many teleporters split them across the common
+ * ForkJoinPool, joining at the end of each teleportation. This way a single
+ * huge test case does not keep the whole run waiting on one thread.
  * 
  * @author Salvo Isaja
  */
-public class TeleportersLarge {
+public class TeleportersLarge implements CaseSolver<TeleportersLarge.Test, Long> {
 
     /** A point with integer coordinates in taxicab geometry. */
-    private static class Point {
+    static class Point {
         public final long x;
         public final long y;
         public final long z;
@@ -96,11 +127,11 @@ public class TeleportersLarge {
         }
     }
 
-    private static class Test implements Callable<String> {
+    static class Test {
         private final int testIndex;
-        private final Point thundera;
+        final Point thundera;
         private final Point careALot;
-        private final List<Point> teleporterPoints;
+        final List<Point> teleporterPoints;
 
         public Test(int testIndex, Point thundera, Point careALot, List<Point> teleporterPoints) {
             this.testIndex = testIndex;
@@ -109,19 +140,48 @@ public class TeleportersLarge {
             this.teleporterPoints = teleporterPoints;
         }
 
-        @Override
-        public String call() {
+        /** Returns the minimum count of teleportations, or 0 if impossible. */
+        public long solve() {
             debugPrint("Case #" + testIndex + ", " + teleporterPoints.size() + " teleporters... ");
             Expander e = new Expander(this);
-            long teleportations = e.fillSpace();
-            return "Case #" + testIndex + ": " + (teleportations > 0 ? teleportations : "IMPOSSIBLE");
+            return e.fillSpace();
         }
     }
 
-    private static class Expander {
+    static class Expander {
+        /**
+         * Stored as distance of a teleporter from itself, so that it never
+         * contributes to the minimum nor to the maximum radius of its own
+         * bubble, without the need to skip it in relax. Far enough from
+         * both real distances and overflow.
+         */
+        static final long SELF_DISTANCE = Long.MIN_VALUE / 4;
+        /**
+         * Minimum count of teleporters to relax bubbles in parallel. Below
+         * this, a teleportation is too short to pay for forking and joining.
+         */
+        static final int PARALLEL_MIN_TELEPORTERS = 100;
+        /** Approximate count of distances to relax in each parallel task. */
+        private static final int DISTANCES_PER_TASK = 4096;
+        /** Teleportations to simulate one by one before giving up, not counting leaps. */
+        private static final int MAX_TELEPORTATIONS = 4000000;
+        /**
+         * Count of powers of two of the distance matrix beyond which leap
+         * gives up, so that teleportation counts do not overflow.
+         */
+        private static final int MAX_POWERS = 62;
+        /** Flag returned by relaxRange if a bubble touches Care-a-lot. */
+        private static final int REACHED = 1;
+        /** Flag returned by relaxRange if the steps of a bubble are not periodic yet. */
+        private static final int NOT_CONVERGED = 2;
+
         private final Test test;
-        private final long[][] teleporterDistances;
+        private final int n;
+        /** The n x n matrix of distances between teleporters, row by row. */
+        private final long[] teleporterDistances;
         private final long[] careALotDistances;
+        private long maxTeleporterDistance;
+        private long maxCareALotDistance;
         private long[] maxRadii;
         private long[] prevMaxRadii;
         private long[] minRadii;
@@ -133,7 +193,8 @@ public class TeleportersLarge {
         Expander(Test test) {
             this.test = test;
             int s = test.teleporterPoints.size();
-            teleporterDistances = new long[s][s];
+            n = s;
+            teleporterDistances = new long[s * s];
             careALotDistances = new long[s];
             maxRadii = new long[s];
             minRadii = new long[s];
@@ -145,7 +206,7 @@ public class TeleportersLarge {
 
         private long extrapolateRadii() {
             long deltaTeleportations = Long.MAX_VALUE;
-            for (int i = 0; i < teleporterDistances.length; i++) {
+            for (int i = 0; i < n; i++) {
                 long contractingSteps = 0;
                 if (minRadii[i] > careALotDistances[i]) {
                     long lastStep = minSteps[ringPos][i];
@@ -172,14 +233,250 @@ public class TeleportersLarge {
             return deltaTeleportations;
         }
         
-        private long fillSpace() {
-            for (int i = 0; i < teleporterDistances.length; i++) {
+        /**
+         * Computes the minimum and maximum radii of the bubble of teleporter i
+         * after one more teleportation, from the radii of all bubbles after
+         * the previous one, and stores them into minRadii[i] and maxRadii[i].
+         *
+         * Thanks to SELF_DISTANCE on the diagonal, no teleporter is skipped
+         * and the row is a plain run over a contiguous array. I've tried
+         * computing the minimum radius without branches, using sign masks,
+         * but on the large dataset almost all of the time is spent when
+         * bubbles are much larger than distances between teleporters, thus
+         * branches are well predicted and the branch-free version was slower.
+         */
+        static void relax(long[] distances, int n, int i, long[] prevMinRadii, long[] prevMaxRadii,
+                long[] minRadii, long[] maxRadii) {
+            long max = 0;
+            long min = Long.MAX_VALUE;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                long prevMinRadius = prevMinRadii[j];
+                long prevMaxRadius = prevMaxRadii[j];
+                long cd = distances[row + j];
+                long minRadius = cd > prevMaxRadius ? cd - prevMaxRadius
+                        : cd < prevMinRadius ? prevMinRadius - cd
+                        : 0;
+                if (minRadius < min) min = minRadius;
+                long maxRadius = cd + prevMaxRadius;
+                if (maxRadius > max) max = maxRadius;
+            }
+            minRadii[i] = min;
+            maxRadii[i] = max;
+        }
+
+        /**
+         * Relaxes bubbles from begin inclusive to end exclusive and records
+         * their steps, returning a combination of REACHED and NOT_CONVERGED.
+         */
+        private int relaxRange(int begin, int end) {
+            int flags = 0;
+            for (int i = begin; i < end; i++) {
+                relax(teleporterDistances, n, i, prevMinRadii, prevMaxRadii, minRadii, maxRadii);
+                if (minRadii[i] <= careALotDistances[i] && maxRadii[i] >= careALotDistances[i]) return REACHED;
+                minSteps[ringPos][i] = prevMinRadii[i] - minRadii[i];
+                maxSteps[ringPos][i] = maxRadii[i] - prevMaxRadii[i];
+                if (minSteps[ringPos][i] != minSteps[(ringPos - 2) & 3][i]
+                        || minSteps[(ringPos - 1) & 3][i] != minSteps[(ringPos - 3) & 3][i]
+                        || maxSteps[ringPos][i] != maxSteps[(ringPos - 2) & 3][i]
+                        || maxSteps[(ringPos - 1) & 3][i] != maxSteps[(ringPos - 3) & 3][i]) flags = NOT_CONVERGED;
+            }
+            return flags;
+        }
+
+        /** Relaxes a range of bubbles, splitting it in halves until small enough. */
+        private final class RelaxTask extends RecursiveTask<Integer> {
+            private static final long serialVersionUID = 1L;
+            private final int begin;
+            private final int end;
+
+            RelaxTask(int begin, int end) {
+                this.begin = begin;
+                this.end = end;
+            }
+
+            @Override
+            protected Integer compute() {
+                if ((end - begin) * n <= DISTANCES_PER_TASK) return relaxRange(begin, end);
+                int middle = (begin + end) >>> 1;
+                RelaxTask left = new RelaxTask(begin, middle);
+                left.fork();
+                int flags = new RelaxTask(middle, end).compute();
+                return flags | left.join();
+            }
+        }
+
+        /**
+         * Returns true if, after the last two teleportations, all bubbles
+         * have minimum radius 0 and maximum radius at least as large as the
+         * farthest pair of teleporters. Since R(t + 2) >= 2 d + R(t) for the
+         * maximum radius of any bubble, this holds for all teleportations to
+         * come, and every bubble always reaches every teleporter, thus its
+         * minimum radius stays 0.
+         */
+        private boolean isExpanding() {
+            for (int i = 0; i < n; i++) {
+                if (minRadii[i] != 0 || maxRadii[i] < maxTeleporterDistance
+                        || prevMaxRadii[i] < maxTeleporterDistance) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Returns true if all bubbles have minimum radius at least as large
+         * as the farthest pair of teleporters. As long as this holds, no
+         * bubble contains any teleporter, and the minimum radius of each
+         * bubble is the minimum among those of other bubbles less their
+         * distance, that is r(t + 1) = -(A x -r(t)).
+         */
+        private boolean isContracting() {
+            for (int i = 0; i < n; i++) {
+                if (minRadii[i] < maxTeleporterDistance) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Stores into c the max-plus product of the n x n matrices a and b,
+         * saturating to cap. Saturation does not change any comparison with
+         * values up to cap, because all products of valid paths are non
+         * negative and each term below cap is computed exactly. Entries
+         * with no path stay SELF_DISTANCE, acting as minus infinity.
+         */
+        private static void multiply(long[] a, long[] b, long[] c, int n, long cap) {
+            Arrays.fill(c, SELF_DISTANCE);
+            for (int i = 0; i < n; i++) {
+                int row = i * n;
+                for (int k = 0; k < n; k++) {
+                    long aik = a[row + k];
+                    if (aik == SELF_DISTANCE) continue;
+                    int kRow = k * n;
+                    for (int j = 0; j < n; j++) {
+                        long v = aik + b[kRow + j];
+                        if (v > c[row + j]) c[row + j] = v;
+                    }
+                }
+                for (int j = 0; j < n; j++) {
+                    long v = c[row + j];
+                    c[row + j] = v > cap ? cap : v < 0 ? SELF_DISTANCE : v;
+                }
+            }
+        }
+
+        /** Stores into result the max-plus product of the n x n matrix a with the vector v. */
+        private static void apply(long[] a, long[] v, long[] result, int n) {
+            for (int i = 0; i < n; i++) {
+                long max = SELF_DISTANCE;
+                int row = i * n;
+                for (int j = 0; j < n; j++) {
+                    long x = a[row + j] + v[j];
+                    if (x > max) max = x;
+                }
+                result[i] = max;
+            }
+        }
+
+        /**
+         * Returns true if, given the maximum radii and the opposite of the
+         * minimum radii after some teleportation, a bubble touches Care-a-lot
+         * or, if contracting, any bubble leaves the contracting regime.
+         * Either condition, once true, stays true one teleportation later
+         * by the triangle inequality, thus leap can look for the first
+         * teleportation where this holds by binary lifting.
+         */
+        private boolean stops(long[] maxRadii, long[] negMinRadii, boolean contracting) {
+            for (int i = 0; i < n; i++) {
+                long minRadius = contracting ? -negMinRadii[i] : 0;
+                if (maxRadii[i] >= careALotDistances[i] && minRadius <= careALotDistances[i]) return true;
+                if (contracting && minRadius < maxTeleporterDistance) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Advances minRadii and maxRadii, that are the radii after the
+         * specified teleportation and do not touch Care-a-lot, to the last
+         * teleportation before stops holds, and returns that teleportation.
+         * Returns -1 if bubbles stop changing before that.
+         *
+         * Powers of A are squared until they saturate, that is stops holds
+         * after that many teleportations, or stop changing. Saturating to
+         * the largest among Care-a-lot distances and minimum radii keeps
+         * stops exact for both the expanding and the contracting regime.
+         */
+        private long leap(long teleportation, boolean contracting) {
+            long cap = maxCareALotDistance;
+            for (int i = 0; i < n; i++) cap = Math.max(cap, minRadii[i]);
+            List<long[]> powers = new ArrayList<>();
+            long[] power = teleporterDistances.clone();
+            for (int i = 0; i < power.length; i++) {
+                if (power[i] > cap) power[i] = cap;
+            }
+            powers.add(power);
+            boolean changing = true;
+            while (!isSaturated(power, cap)) {
+                if (powers.size() == MAX_POWERS) return -1;
+                long[] square = new long[n * n];
+                multiply(power, power, square, n, cap);
+                if (Arrays.equals(square, power)) {
+                    changing = false;
+                    break;
+                }
+                powers.add(square);
+                power = square;
+            }
+            long[] max = maxRadii.clone();
+            long[] negMin = new long[n];
+            for (int i = 0; i < n; i++) negMin[i] = -minRadii[i];
+            long[] nextMax = new long[n];
+            long[] nextNegMin = new long[n];
+            long t = teleportation;
+            for (int k = powers.size() - 1; k >= 0; k--) {
+                apply(powers.get(k), max, nextMax, n);
+                if (contracting) apply(powers.get(k), negMin, nextNegMin, n);
+                if (!stops(nextMax, nextNegMin, contracting)) {
+                    long[] temp = max;
+                    max = nextMax;
+                    nextMax = temp;
+                    temp = negMin;
+                    negMin = nextNegMin;
+                    nextNegMin = temp;
+                    t += 1L << k;
+                }
+            }
+            if (!changing) {
+                apply(powers.get(0), max, nextMax, n);
+                if (contracting) apply(powers.get(0), negMin, nextNegMin, n);
+                if (!stops(nextMax, nextNegMin, contracting)) return -1;
+            }
+            System.arraycopy(max, 0, maxRadii, 0, n);
+            if (contracting) {
+                for (int i = 0; i < n; i++) minRadii[i] = -negMin[i];
+            }
+            return t;
+        }
+
+        /**
+         * Returns true if all entries of the matrix, but those with no path,
+         * are saturated to cap.
+         */
+        private static boolean isSaturated(long[] matrix, long cap) {
+            for (long v : matrix) {
+                if (v < cap && v != SELF_DISTANCE) return false;
+            }
+            return true;
+        }
+
+        long fillSpace() {
+            for (int i = 0; i < n; i++) {
                 Point p = test.teleporterPoints.get(i);
                 careALotDistances[i] = p.distance(test.careALot);
-                for (int j = 0; j < teleporterDistances.length; j++) {
+                for (int j = 0; j < n; j++) {
                     Point q = test.teleporterPoints.get(j);
-                    teleporterDistances[i][j] = p.distance(q);
+                    teleporterDistances[i * n + j] = i == j ? SELF_DISTANCE : p.distance(q);
+                    if (i != j) maxTeleporterDistance = Math.max(maxTeleporterDistance, teleporterDistances[i * n + j]);
                 }
+                maxCareALotDistance = Math.max(maxCareALotDistance, careALotDistances[i]);
             }
             for (int i = 0; i < test.teleporterPoints.size(); i++) {
                 prevMinRadii[i] = test.thundera.distance(test.teleporterPoints.get(i));
@@ -190,42 +487,35 @@ public class TeleportersLarge {
                 }
             }
             if (test.teleporterPoints.size() == 1) return Integer.MIN_VALUE;
-            for (int teleportation = 2; teleportation < 4000000; teleportation++) {
-                boolean converged = true;
-                // Give the JVM a pattern to recognize it can do array bound
-                // check elimination, especially on the inner loop.
-                for (int i = 0; i < teleporterDistances.length; i++) {
-                    long max = 0;
-                    long min = Long.MAX_VALUE;
-                    long[] ithTeleporterDistances = teleporterDistances[i];
-                    for (int j = 0; j < ithTeleporterDistances.length; j++) {
-                        if (j == i) continue;
-                        long prevMinRadius = prevMinRadii[j];
-                        long prevMaxRadius = prevMaxRadii[j];
-                        long cd = teleporterDistances[i][j];
-                        long minRadius = cd > prevMaxRadius ? cd - prevMaxRadius
-                                : cd < prevMinRadius ? prevMinRadius - cd
-                                : 0;
-                        if (minRadius < min) min = minRadius;
-                        long maxRadius = cd + prevMaxRadius;
-                        if (maxRadius > max) max = maxRadius;
+            boolean parallel = n >= PARALLEL_MIN_TELEPORTERS && ForkJoinPool.getCommonPoolParallelism() > 1;
+            long limit = MAX_TELEPORTATIONS;
+            // Steps recorded since the last leap, the ring needs 4 of them
+            int recordedSteps = 4;
+            for (long teleportation = 2; teleportation < limit; teleportation++, recordedSteps++) {
+                int flags = parallel ? ForkJoinPool.commonPool().invoke(new RelaxTask(0, n)) : relaxRange(0, n);
+                if ((flags & REACHED) != 0) {
+                    debugPrint("Reachable after " + teleportation + " teleportations.\n");
+                    return teleportation;
+                }
+                boolean expanding = isExpanding();
+                if (expanding || isContracting()) {
+                    long last = leap(teleportation, !expanding);
+                    if (last < 0) {
+                        debugPrint("Stuck after " + teleportation + " teleportations.\n");
+                        return 0;
                     }
-                    if (min <= careALotDistances[i] && max >= careALotDistances[i]) {
-                        debugPrint("Reachable after " + teleportation + " teleportations.\n");
-                        return teleportation;
+                    if (expanding) {
+                        debugPrint("Expanding after " + teleportation + " teleportations, reachable after " + (last + 1) + ".\n");
+                        return last + 1;
+                    }
+                    if (last > teleportation) {
+                        debugPrint("Contracting after " + teleportation + " teleportations, up to " + last + ". ");
+                        limit += last - teleportation;
+                        teleportation = last;
+                        recordedSteps = 0;
                     }
-                    minRadii[i] = min;
-                    maxRadii[i] = max;
-                    minSteps[ringPos][i] = prevMinRadii[i] - minRadii[i];
-                    maxSteps[ringPos][i] = maxRadii[i] - prevMaxRadii[i];
-                    if (minSteps[ringPos][i] != minSteps[(ringPos - 2) & 3][i]
-                            || minSteps[(ringPos - 1) & 3][i] != minSteps[(ringPos - 3) & 3][i]
-                            || maxSteps[ringPos][i] != maxSteps[(ringPos - 2) & 3][i]
-                            || maxSteps[(ringPos - 1) & 3][i] != maxSteps[(ringPos - 3) & 3][i]) converged = false;
-                    //debugPrint(minSteps[pos][i] + "\t");
                 }
-                //debugPrint("\n");
-                if (converged) {
+                if (recordedSteps >= 4 && (flags & NOT_CONVERGED) == 0) {
                     debugPrint("Converged after " + teleportation + " teleportations.\n");
                     return teleportation + extrapolateRadii();
                 }
@@ -247,33 +537,42 @@ public class TeleportersLarge {
         if (true) System.err.print(s);
     }
 
-    private void scanTests(InputStream is) throws InterruptedException, ExecutionException {
-        ExecutorService threadPool = Executors.newFixedThreadPool(DEBUG ? 1 : Runtime.getRuntime().availableProcessors());
-        List<Test> tests = new ArrayList<>();
-        try (Scanner scanner = new Scanner(is)) {
-            int testCount = scanner.nextInt();
-            for (int t = 1; t <= testCount; t++) {
-                int teleporterCount = scanner.nextInt();
-                Point thundera = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
-                Point careALot = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
-                List<Point> teleporterPoints = new ArrayList<>(teleporterCount);
-                for (int i = 0; i < teleporterCount; i++) {
-                    teleporterPoints.add(new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong()));
-                }
-                tests.add(new Test(t, thundera, careALot, teleporterPoints));
-            }
+    @Override
+    public Test parseCase(int testNumber, FastScanner scanner) {
+        int teleporterCount = scanner.nextInt();
+        Point thundera = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
+        Point careALot = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
+        List<Point> teleporterPoints = new ArrayList<>(teleporterCount);
+        for (int i = 0; i < teleporterCount; i++) {
+            teleporterPoints.add(new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong()));
         }
-        List<Future<String>> results = threadPool.invokeAll(tests);
-        for (Future<String> f : results) {
-            System.out.println(f.get());
-        }
-        threadPool.shutdown();
+        return new Test(testNumber, thundera, careALot, teleporterPoints);
+    }
+
+    /** The Expander fills a distance matrix and runs over it once per teleportation. */
+    @Override
+    public long estimateCost(Test test) {
+        long n = test.teleporterPoints.size();
+        return n * n;
+    }
+
+    @Override
+    public Long solveCase(Test test) {
+        return test.solve();
+    }
+
+    @Override
+    public void printResult(int testNumber, Long result, FastWriter out) {
+        out.printCase(testNumber).print(' ');
+        if (result > 0) out.println(result); else out.println("IMPOSSIBLE");
     }
 
     public static void main(String[] args) throws FileNotFoundException, InterruptedException, ExecutionException {
         long t = System.nanoTime();
-        TeleportersLarge sm = new TeleportersLarge();
-        sm.scanTests(DEBUG ? new FileInputStream("resources/codejam2017/finals/F-large-practice.in") : System.in);
+        InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/finals/F-large-practice.in") : System.in;
+        new ParallelRunner<>(new TeleportersLarge(), DEBUG ? 1 : Runtime.getRuntime().availableProcessors())
+                .setTimeReport(System.err)
+                .run(is, System.out);
         System.err.println("TeleportersLarge done in " + ((System.nanoTime() - t) / 1e9) + " seconds.");
     }
 }
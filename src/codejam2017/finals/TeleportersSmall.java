@@ -25,22 +25,19 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.finals;
 
+import codejam.common.CaseSolver;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
+import codejam.common.ParallelRunner;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
-import java.util.Scanner;
-import java.util.TreeMap;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * The Teleporters problem from Google Code Jam World Finals 2017.
@@ -70,6 +67,11 @@ import java.util.concurrent.Future;
  * set of our breath first search. For efficiency, the algorithm actually
  * keeps track of "unvisited bubbles", much like an allocator keeps track
  * of free/unallocated space.
+ * Both these maps and the queue of the breadth first search are stored
+ * in growable arrays of primitive longs (see IntervalSet and BubbleQueue),
+ * because boxing keys and allocating an object for each bubble used to
+ * dominate the running time. Parent links are not kept unless paths are
+ * printed (see PRINT_PATHS), so memory stays flat on long searches.
  * 
  * This is effective for the small dataset, but fails dramatically for the
  * large dataset, especially if teleporters are very close to each other
@@ -79,7 +81,7 @@ import java.util.concurrent.Future;
  * 
  * @author Salvo Isaja
  */
-public class TeleportersSmall {
+public class TeleportersSmall implements CaseSolver<TeleportersSmall.Test, Long> {
 
     /** A point with integer coordinates in taxicab geometry. */
     private static class Point {
@@ -104,80 +106,183 @@ public class TeleportersSmall {
     }
 
     /**
-     * A set of spheres with the same center and with radii within a half-closed interval.
-     * The distance from a point in space to the bubble is:
+     * The radii not yet visited around a teleporter, as half-closed intervals
+     * keyed by their minimum radius, like an allocator keeps track of free
+     * address space. Keys and suprema are kept in two sorted long arrays,
+     * so that neither keys nor intervals are boxed into objects.
+     */
+    static class IntervalSet {
+        private long[] minRadii = new long[16];
+        private long[] supRadii = new long[16];
+        private int size;
+
+        /** Returns the index of the greatest key less than or equal to the specified one, or -1 if none. */
+        int floor(long minRadius) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (minRadii[mid] <= minRadius) lo = mid + 1; else hi = mid - 1;
+            }
+            return hi;
+        }
+
+        /** Returns the index of the least key strictly greater than the specified one, or -1 if none. */
+        int higher(long minRadius) {
+            int i = floor(minRadius) + 1;
+            return i < size ? i : -1;
+        }
+
+        long minRadius(int index) {
+            return minRadii[index];
+        }
+
+        long supRadius(int index) {
+            return supRadii[index];
+        }
+
+        void remove(int index) {
+            System.arraycopy(minRadii, index + 1, minRadii, index, size - index - 1);
+            System.arraycopy(supRadii, index + 1, supRadii, index, size - index - 1);
+            size--;
+        }
+
+        /** Adds an interval, replacing the one with the same minimum radius, if any. */
+        void put(long minRadius, long supRadius) {
+            int i = floor(minRadius);
+            if (i >= 0 && minRadii[i] == minRadius) {
+                supRadii[i] = supRadius;
+                return;
+            }
+            i++;
+            if (size == minRadii.length) {
+                minRadii = Arrays.copyOf(minRadii, size * 2);
+                supRadii = Arrays.copyOf(supRadii, size * 2);
+            }
+            System.arraycopy(minRadii, i, minRadii, i + 1, size - i);
+            System.arraycopy(supRadii, i, supRadii, i + 1, size - i);
+            minRadii[i] = minRadius;
+            supRadii[i] = supRadius;
+            size++;
+        }
+    }
+
+    /**
+     * The open set of the breadth first search, as a growable ring of bubbles.
+     * A bubble is a set of spheres with the same center and with radii within
+     * a half-closed interval. The distance from a point in space to the bubble is:
      * - if the point is inside the bubble, the distance from the innermost sphere;
      * - if the point if outside the bubble, the distance from the outermost sphere;
      * - if the point is between the innermost and the outermost sphere,
      *   it touches the bubble, thus its distance is zero.
-     * A new bubble can be constructed by specifying its center and the bubble
-     * we were in the previous step, before teleportation.
+     * Each bubble is stored as the index of its center (see Test.fillSpace),
+     * its minimum radius, one past its maximum radius and the count of
+     * teleportations to get there, in four parallel arrays.
      */
-    private static class Bubble {
-        public final Point center;
-        public final long minRadius; // minimum radius of the set of spheres
-        public final long supRadius; // one past the maximum radius of the set of spheres
-        public final long teleportations;
-        public final Bubble prevBubble;
-
-        /** Creates the next bubble in the path. */
-        public static Bubble fromPrevBubble(Point center, Bubble prevBubble) {
-            long cd = prevBubble.center.distance(center);
-            long minRadius = cd >= prevBubble.supRadius ? cd - prevBubble.supRadius + 1
-                    : cd < prevBubble.minRadius ? prevBubble.minRadius - cd
-                    : 0;
-            long supRadius = cd + prevBubble.supRadius;
-            assert supRadius > minRadius;
-            return new Bubble(center, minRadius, supRadius, prevBubble.teleportations + 1, prevBubble);
+    static class BubbleQueue {
+        private int[] centers = new int[1024];
+        private long[] minRadii = new long[1024];
+        private long[] supRadii = new long[1024];
+        private long[] teleportations = new long[1024];
+        private int head;
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
         }
 
-        /** Creates a new bubble by cloning the specified bubble but with restricted radii. */
-        public static Bubble fromLargerBubble(Bubble bubble, long minRadius, long supRadius) {
-            return new Bubble(bubble.center, minRadius, supRadius, bubble.teleportations, bubble.prevBubble);
+        void add(int center, long minRadius, long supRadius, long teleportationCount) {
+            if (size == centers.length) grow();
+            int tail = (head + size) & (centers.length - 1);
+            centers[tail] = center;
+            minRadii[tail] = minRadius;
+            supRadii[tail] = supRadius;
+            teleportations[tail] = teleportationCount;
+            size++;
         }
 
-        /** The I-know-what-I'm-doing constructor. */
-        public Bubble(Point center, long minRadius, long supRadius, long teleportations, Bubble prevBubble) {
-            this.center = center;
-            this.minRadius = minRadius;
-            this.supRadius = supRadius;
-            this.teleportations = teleportations;
-            this.prevBubble = prevBubble;
+        /** Removes the bubble at the head and returns its slot, valid until the next add. */
+        int poll() {
+            int slot = head;
+            head = (head + 1) & (centers.length - 1);
+            size--;
+            return slot;
         }
 
-        public boolean touches(Point p) {
-            long d = center.distance(p);
-            return d >= minRadius && d < supRadius;
+        int center(int slot) {
+            return centers[slot];
         }
 
-        public long distance(Point p) {
-            long d = center.distance(p);
-            if (d >= supRadius) return d - supRadius + 1;
-            if (d < minRadius) return minRadius - d;
-            return 0;
+        long minRadius(int slot) {
+            return minRadii[slot];
         }
 
-        @Override
-        public String toString() {
-            return "Bubble{" + center.x + ", " + center.y + ", " + center.z + ", r[" + minRadius + "," + supRadius + ")}";
+        long supRadius(int slot) {
+            return supRadii[slot];
+        }
+
+        long teleportations(int slot) {
+            return teleportations[slot];
+        }
+
+        /** Doubles the capacity, unrolling the ring so that it starts at 0. */
+        private void grow() {
+            int capacity = centers.length * 2;
+            centers = unroll(centers, new int[capacity]);
+            minRadii = unroll(minRadii, new long[capacity]);
+            supRadii = unroll(supRadii, new long[capacity]);
+            teleportations = unroll(teleportations, new long[capacity]);
+            head = 0;
+        }
+
+        private int[] unroll(int[] from, int[] to) {
+            int first = from.length - head;
+            System.arraycopy(from, head, to, 0, first);
+            System.arraycopy(from, 0, to, first, head);
+            return to;
+        }
+
+        private long[] unroll(long[] from, long[] to) {
+            int first = from.length - head;
+            System.arraycopy(from, head, to, 0, first);
+            System.arraycopy(from, 0, to, first, head);
+            return to;
         }
     }
 
-    private static class Teleporter {
-        final Point point;
-        final TreeMap<Long, Bubble> bubbles; // Non-overlapping bubbles centered on the teleporter, keyed by minRadius.
-                                             // Not needed for bubble "allocation", but useful for debugging/studying
-        final TreeMap<Long, Bubble> emptyBubbles; // Same as above, but for regions of space not yet visited
-
-        public Teleporter(Point point) {
-            this.point = point;
-            bubbles = new TreeMap<>();
-            emptyBubbles = new TreeMap<>();
-            emptyBubbles.put(0L, new Bubble(point, 0, Long.MAX_VALUE, 0, null));
+    /**
+     * The parent of each bubble ever added to the BubbleQueue, with the
+     * teleporter it is centered on, indexed by the order bubbles were added.
+     * Since the queue is first in first out, that is also the order they are
+     * polled, thus bubbles need no identifier. Only kept if PRINT_PATHS is
+     * set, because unlike the queue this grows with the count of bubbles
+     * explored, although at just 8 bytes per bubble.
+     */
+    static class ParentLinks {
+        private int[] parents = new int[1024];
+        private int[] centers = new int[1024];
+        private int size;
+
+        void add(int parent, int center) {
+            if (size == parents.length) {
+                parents = Arrays.copyOf(parents, size * 2);
+                centers = Arrays.copyOf(centers, size * 2);
+            }
+            parents[size] = parent;
+            centers[size] = center;
+            size++;
+        }
+
+        /** Returns the centers of bubbles from the start to the specified one, excluded the start. */
+        List<Integer> path(int bubble) {
+            List<Integer> path = new ArrayList<>();
+            for (int b = bubble; parents[b] >= 0; b = parents[b]) path.add(centers[b]);
+            Collections.reverse(path);
+            return path;
         }
     }
 
-    private static class Test implements Callable<String> {
+    static class Test {
         private final int testIndex;
         private final Point thundera;
         private final Point careALot;
@@ -193,96 +298,148 @@ public class TeleportersSmall {
         /**
          * Do a breath first search for a bubble touching Care-a-lot.
          * Our closed set is conceptually given by regions of spaces already
-         * represented by the bubbles map of each teleporter.
+         * visited around each teleporter, that is the complement of its
+         * IntervalSet of unvisited radii.
          * The inner loop is basically an allocator, very similar to what
          * would be done to reserve address space segments with mmap.
+         * Teleporters are numbered from 0 to n - 1, and Thundera is center n,
+         * so that all distances are looked up from arrays.
+         * Returns the count of teleportations, or -1 if impossible.
          */
-        private Bubble fillSpace() {
-            // We create the collection of Teleporters here instead of as a class
-            // variable to minimize the amount of garbage held by the thread pool.
-            Collection<Teleporter> teleporters = new ArrayList<>(teleporterPoints.size());
-            for (Point p : teleporterPoints) teleporters.add(new Teleporter(p));
-            Queue<Bubble> openSet = new LinkedList<>();
-            Bubble start = new Bubble(thundera, 0, 1, 0, null);
-            openSet.add(start);
-            while (!openSet.isEmpty()) {
-                Bubble current = openSet.poll();
-                if (current.touches(careALot)) {
-                    return current;
+        private long fillSpace() {
+            // We create the data structures here instead of as class variables
+            // to minimize the amount of garbage held by the thread pool.
+            int n = teleporterPoints.size();
+            Point[] points = teleporterPoints.toArray(new Point[n + 1]);
+            points[n] = thundera;
+            long[] distances = new long[(n + 1) * n];
+            long[] careALotDistances = new long[n + 1];
+            IntervalSet[] emptyBubbles = new IntervalSet[n];
+            for (int c = 0; c <= n; c++) {
+                careALotDistances[c] = points[c].distance(careALot);
+                for (int t = 0; t < n; t++) distances[c * n + t] = points[c].distance(points[t]);
+            }
+            for (int t = 0; t < n; t++) {
+                emptyBubbles[t] = new IntervalSet();
+                emptyBubbles[t].put(0, Long.MAX_VALUE);
+            }
+            BubbleQueue openSet = new BubbleQueue();
+            openSet.add(n, 0, 1, 0);
+            ParentLinks links = PRINT_PATHS ? new ParentLinks() : null;
+            if (links != null) links.add(-1, n);
+            for (int current = 0; !openSet.isEmpty(); current++) {
+                int slot = openSet.poll();
+                int center = openSet.center(slot);
+                long currentMinRadius = openSet.minRadius(slot);
+                long currentSupRadius = openSet.supRadius(slot);
+                long teleportations = openSet.teleportations(slot);
+                long d = careALotDistances[center];
+                if (d >= currentMinRadius && d < currentSupRadius) {
+                    if (links != null) printPath(links.path(current));
+                    return teleportations;
                 }
-                for (Teleporter t : teleporters) {
-                    Bubble next = Bubble.fromPrevBubble(t.point, current);
-                    if (next.touches(careALot)) {
-                        return next;
+                for (int t = 0; t < n; t++) {
+                    long cd = distances[center * n + t];
+                    long nextMinRadius = cd >= currentSupRadius ? cd - currentSupRadius + 1
+                            : cd < currentMinRadius ? currentMinRadius - cd
+                            : 0;
+                    long nextSupRadius = cd + currentSupRadius;
+                    assert nextSupRadius > nextMinRadius;
+                    d = careALotDistances[t];
+                    if (d >= nextMinRadius && d < nextSupRadius) {
+                        if (links != null) {
+                            List<Integer> path = links.path(current);
+                            path.add(t);
+                            printPath(path);
+                        }
+                        return teleportations + 1;
                     }
-                    long minRadius = next.minRadius;
-                    Map.Entry<Long, Bubble> emptyEntry = t.emptyBubbles.floorEntry(minRadius);
-                    while (minRadius <= next.supRadius) {
-                        if (emptyEntry != null && minRadius <= emptyEntry.getValue().supRadius) {
-                            Bubble b = t.emptyBubbles.remove(emptyEntry.getKey());
-                            long supRadius = Math.min(next.supRadius, b.supRadius);
-                            if (b.minRadius < minRadius) {
-                                t.emptyBubbles.put(b.minRadius, Bubble.fromLargerBubble(b, b.minRadius, minRadius - b.minRadius));
+                    IntervalSet empty = emptyBubbles[t];
+                    long minRadius = nextMinRadius;
+                    int emptyIndex = empty.floor(minRadius);
+                    while (minRadius <= nextSupRadius) {
+                        if (emptyIndex >= 0 && minRadius <= empty.supRadius(emptyIndex)) {
+                            long bMinRadius = empty.minRadius(emptyIndex);
+                            long bSupRadius = empty.supRadius(emptyIndex);
+                            empty.remove(emptyIndex);
+                            long supRadius = Math.min(nextSupRadius, bSupRadius);
+                            if (bMinRadius < minRadius) {
+                                empty.put(bMinRadius, minRadius);
                             }
-                            if (b.supRadius > supRadius) {
-                                t.emptyBubbles.put(supRadius, Bubble.fromLargerBubble(b, supRadius, b.supRadius - supRadius));
+                            if (bSupRadius > supRadius) {
+                                empty.put(supRadius, bSupRadius);
                             }
                             if (supRadius > minRadius) {
-                                b = Bubble.fromLargerBubble(next, minRadius, supRadius);
-                                t.bubbles.put(minRadius, b);
-                                openSet.add(b);
+                                openSet.add(t, minRadius, supRadius, teleportations + 1);
+                                if (links != null) links.add(current, t);
                             }
                         }
-                        emptyEntry = t.emptyBubbles.higherEntry(minRadius);
-                        if (emptyEntry == null) break;
-                        minRadius = emptyEntry.getValue().minRadius;
+                        emptyIndex = empty.higher(minRadius);
+                        if (emptyIndex < 0) break;
+                        minRadius = empty.minRadius(emptyIndex);
                     }
                 }
             }
-            return null;
+            return -1;
         }
 
-        @Override
-        public String call() {
+        private void printPath(List<Integer> path) {
+            StringBuilder sb = new StringBuilder("Case #").append(testIndex).append(" path: Thundera");
+            for (int t : path) sb.append(" -> ").append(t);
+            System.err.println(sb.append(" -> Care-a-lot"));
+        }
+
+        /** Returns the minimum count of teleportations, or -1 if impossible. */
+        public long solve() {
             System.err.println("Case #" + testIndex + ", " + teleporterPoints.size() + " teleporters");
-            Bubble lastBubble = fillSpace();
-            return "Case #" + testIndex + ": " + (lastBubble != null ? lastBubble.teleportations : "IMPOSSIBLE");
+            return fillSpace();
         }
     }
     
     private static final boolean DEBUG = false;
+    /** Whether to print the teleporters used to reach Care-a-lot, at the cost of memory. */
+    private static final boolean PRINT_PATHS = false;
 
     private static void debugPrint(String s) {
         if (DEBUG) System.out.println(s);
     }
 
-    private void scanTests(InputStream is) throws InterruptedException, ExecutionException {
-        ExecutorService threadPool = Executors.newFixedThreadPool(DEBUG ? 1 : Runtime.getRuntime().availableProcessors());
-        List<Test> tests = new ArrayList<>();
-        try (Scanner scanner = new Scanner(is)) {
-            int testCount = scanner.nextInt();
-            for (int t = 1; t <= testCount; t++) {
-                int teleporterCount = scanner.nextInt();
-                Point thundera = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
-                Point careALot = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
-                List<Point> teleporterPoints = new ArrayList<>(teleporterCount);
-                for (int i = 0; i < teleporterCount; i++) {
-                    teleporterPoints.add(new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong()));
-                }
-                tests.add(new Test(t, thundera, careALot, teleporterPoints));
-            }
-        }
-        List<Future<String>> results = threadPool.invokeAll(tests);
-        for (Future<String> f : results) {
-            System.out.println(f.get());
+    @Override
+    public Test parseCase(int testNumber, FastScanner scanner) {
+        int teleporterCount = scanner.nextInt();
+        Point thundera = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
+        Point careALot = new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong());
+        List<Point> teleporterPoints = new ArrayList<>(teleporterCount);
+        for (int i = 0; i < teleporterCount; i++) {
+            teleporterPoints.add(new Point(scanner.nextLong(), scanner.nextLong(), scanner.nextLong()));
         }
-        threadPool.shutdown();
+        return new Test(testNumber, thundera, careALot, teleporterPoints);
+    }
+
+    /** Each bubble visited by the breadth first search is expanded through all teleporters. */
+    @Override
+    public long estimateCost(Test test) {
+        long n = test.teleporterPoints.size();
+        return n * n;
+    }
+
+    @Override
+    public Long solveCase(Test test) {
+        return test.solve();
+    }
+
+    @Override
+    public void printResult(int testNumber, Long result, FastWriter out) {
+        out.printCase(testNumber).print(' ');
+        if (result >= 0) out.println(result); else out.println("IMPOSSIBLE");
     }
 
     public static void main(String[] args) throws FileNotFoundException, InterruptedException, ExecutionException {
         long t = System.nanoTime();
-        TeleportersSmall sm = new TeleportersSmall();
-        sm.scanTests(DEBUG ? new FileInputStream("resources/codejam2017/finals/F-small-practice.in") : System.in);
+        InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/finals/F-small-practice.in") : System.in;
+        new ParallelRunner<>(new TeleportersSmall(), DEBUG ? 1 : Runtime.getRuntime().availableProcessors())
+                .setTimeReport(System.err)
+                .run(is, System.out);
         System.err.println("TeleportersSmall done in " + ((System.nanoTime() - t) / 1e9) + " seconds.");
     }
 }
@@ -25,10 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.qualification;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.Scanner;
 
 /**
  * The Bathroom Stalls problem from Google Code Jam Qualification 2017.
@@ -93,7 +94,7 @@ public class BathroomStalls {
 
     private static final boolean DEBUG = false;
 
-    private void solve(int testIndex, long stallCount, long peopleCount) {
+    private void solve(int testIndex, long stallCount, long peopleCount, FastWriter out) {
         int level = Long.SIZE - Long.numberOfLeadingZeros(peopleCount); // 1-based tree level
         long prevLevelOccupiedStalls = (1L << (level - 1)) - 1;
         long currLevelFreeStalls = stallCount - prevLevelOccupiedStalls;
@@ -105,16 +106,16 @@ public class BathroomStalls {
         if (peopleLeft <= stallsPerPersonRemainder) stallsPerPerson++;
         long minAdjacentEmptyStalls = (stallsPerPerson - 1) / 2;
         long maxAdjacentEmptyStalls = stallsPerPerson / 2;
-        System.out.println("Case #" + testIndex + ": " + maxAdjacentEmptyStalls + " " + minAdjacentEmptyStalls);
+        out.printCase(testIndex).print(' ').print(maxAdjacentEmptyStalls).print(' ').println(minAdjacentEmptyStalls);
     }
     
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int t = 1; t <= testCount; t++) {
                 long stallCount = scanner.nextLong();
                 long peopleCount = scanner.nextLong();
-                solve(t, stallCount, peopleCount);
+                solve(t, stallCount, peopleCount, out);
             }
         }
     }
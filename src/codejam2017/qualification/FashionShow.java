@@ -25,6 +25,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.qualification;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
@@ -32,7 +34,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * The Fashion Show problem from Google Code Jam Qualification 2017.
@@ -190,52 +191,52 @@ public class FashionShow {
             }
         }
 
-        private void print() {
+        private void print(FastWriter out) {
             char[] grid = new char[sideLength * sideLength];
             Arrays.fill(grid, '.');
             for (Model m : models) grid[m.y * sideLength + m.x] = m.type;
             for (int y = 0; y < sideLength; y++) {
                 for (int x = 0; x < sideLength; x++) {
                     char c = grid[y * sideLength + x];
-                    System.out.print(c);
+                    out.print(c);
                 }
-                System.out.println();
+                out.println();
             }
         }
     }
 
     private static final boolean DEBUG = false;
     
-    private void printResult(int testIndex, Stage stage) {
+    private void printResult(int testIndex, Stage stage, FastWriter out) {
         int score = 0;
         int extraModelCount = 0;
         for (Model m : stage.models) {
             score += m.score();
             if (!m.initial) extraModelCount++;
         }
-        System.out.println("Case #" + testIndex + ": " + score + " " + extraModelCount);
+        out.printCase(testIndex).print(' ').print(score).print(' ').println(extraModelCount);
         for (Model m : stage.models) {
-            if (!m.initial) System.out.println(m.type + " " + (m.y + 1) + " " + (m.x + 1));
+            if (!m.initial) out.print(m.type).print(' ').print(m.y + 1).print(' ').println(m.x + 1);
         }
     }
 
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int t = 1; t <= testCount; t++) {
                 int sideLength = scanner.nextInt();
                 int initialModelCount = scanner.nextInt();
                 List<Model> initialModels = new ArrayList<>();
                 for (int i = 0; i < initialModelCount; i++) {
-                    char c = scanner.next().charAt(0);
+                    char c = scanner.nextChar();
                     int y = scanner.nextInt();
                     int x = scanner.nextInt();
                     initialModels.add(new Model(x - 1, y - 1, c, true));
                 }
                 Stage stage = new Stage(initialModels, sideLength);
                 stage.fill();
-                printResult(t, stage);
-                if (DEBUG) stage.print();
+                printResult(t, stage, out);
+                if (DEBUG) stage.print(out);
             }
         }
     }
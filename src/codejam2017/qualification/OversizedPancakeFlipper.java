@@ -25,10 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.qualification;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.Scanner;
 
 /**
  * The Oversized Pancake Flipper problem from Google Code Jam Qualification 2017.
@@ -68,13 +69,13 @@ public class OversizedPancakeFlipper {
     }
 
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int t = 1; t <= testCount; t++) {
                 String row = scanner.next();
                 int flipperSize = scanner.nextInt();
                 int result = solve(row, flipperSize);
-                System.out.println("Case #" + t + ": " + (result >= 0 ? result : "IMPOSSIBLE"));
+                out.printCase(t).print(' ').println(result >= 0 ? result : "IMPOSSIBLE");
             }
         }
     }
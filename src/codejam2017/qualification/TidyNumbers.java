@@ -25,10 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.qualification;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.Scanner;
 
 /**
  * The Tidy Numbers problem from Google Code Jam Qualification 2017.
@@ -61,12 +62,12 @@ public class TidyNumbers {
     }
     
     private void scanTests(InputStream is) {
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int t = 1; t <= testCount; t++) {
                 long number = scanner.nextLong();
                 long result = solve(number);
-                System.out.println("Case #" + t + ": " + result);
+                out.printCase(t).print(' ').println(result);
             }
         }
     }
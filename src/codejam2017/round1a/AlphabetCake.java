@@ -25,14 +25,13 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.round1a;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * Alphabet Cake problem from Round 1A of Code Jam 2017.
@@ -152,7 +151,7 @@ public class AlphabetCake {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/round1a/A-large-practice.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int rowCount = scanner.nextInt();
@@ -165,10 +164,10 @@ public class AlphabetCake {
                 }
                 AlphabetCake test = new AlphabetCake(grid);
                 test.solve();
-                System.out.println("Case #" + testNumber + ":");
+                out.printCase(testNumber).println();
                 for (int y = 0; y < rowCount; y++) {
-                    for (int x = 0; x < columnCount; x++) System.out.print(test.grid.get(y, x));
-                    System.out.println();
+                    for (int x = 0; x < columnCount; x++) out.print(test.grid.get(y, x));
+                    out.println();
                 }
             }
         }
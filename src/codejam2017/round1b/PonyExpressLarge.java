@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.round1b;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.PriorityQueue;
-import java.util.Scanner;
 
 /**
  * Pony Express problem from Round 1B of Code Jam 2017.
@@ -123,25 +122,25 @@ public class PonyExpressLarge {
         throw new IllegalStateException("Unreachable destination");
     }
 
-    private void solve(int testNumber) {
+    private void solve(int testNumber, FastWriter out) {
         // Construct the graph of travel times
         times = new double[cityCount][cityCount];
         for (int from = 0; from < cityCount; from++) {
             computeTimes(from);
         }
         // Dijkstra shortest paths using times as graph weights
-        System.out.print("Case #" + testNumber + ":");
+        out.printCase(testNumber);
         for (int i = 0; i < stopCount; i++) {
             double t = dijkstra(stopFroms[i], stopTos[i]);
-            System.out.print(" " + t);
+            out.print(' ').print(t);
         }
-        System.out.println();
+        out.println();
     }
 
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/round1b/C-large-practice.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 PonyExpressLarge pe = new PonyExpressLarge();
@@ -165,7 +164,7 @@ public class PonyExpressLarge {
                     pe.stopFroms[i] = scanner.nextInt() - 1;
                     pe.stopTos[i] = scanner.nextInt() - 1;
                 }
-                pe.solve(testNumber);
+                pe.solve(testNumber, out);
             }
         }
         System.err.println("PonyExpressLarge done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
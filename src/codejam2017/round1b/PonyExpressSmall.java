@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.round1b;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.BitSet;
-import java.util.Scanner;
 
 /**
  * Pony Express problem from Round 1B of Code Jam 2017.
@@ -113,7 +112,7 @@ public class PonyExpressSmall {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/round1b/C-small-practice.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 PonyExpressSmall pe = new PonyExpressSmall();
@@ -140,7 +139,7 @@ public class PonyExpressSmall {
                 //if (testNumber != 6) continue;
                 double result = pe.solve();
                 //System.out.format("Case #%d: %.9f\n", testNumber, result);
-                System.out.println("Case #" + testNumber + ": " + result);
+                out.printCase(testNumber).print(' ').println(result);
             }
         }
         System.err.println("PonyExpressSmall done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
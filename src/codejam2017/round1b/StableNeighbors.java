@@ -25,17 +25,16 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.round1b;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
-import java.util.Scanner;
 
 /**
  * Stable Neigh-bors problem from Round 1B of Code Jam 2017.
@@ -191,7 +190,7 @@ public class StableNeighbors {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/round1b/B-large-practice.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int unicornCount = scanner.nextInt();
@@ -205,7 +204,7 @@ public class StableNeighbors {
                     }
                 }
                 String result = solve(groups);
-                System.out.println("Case #" + testNumber + ": " + (result != null ? result : "IMPOSSIBLE"));
+                out.printCase(testNumber).print(' ').println(result != null ? result : "IMPOSSIBLE");
             }
         }
         System.err.println("StableNeighbors done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
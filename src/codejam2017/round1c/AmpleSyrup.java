@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.round1c;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Arrays;
-import java.util.Scanner;
 
 /**
  * Ample Syrup problem from Round 1C of Code Jam 2017.
@@ -90,7 +89,7 @@ public class AmpleSyrup {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/round1c/A-large-practice.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int pancakeCount = scanner.nextInt();
@@ -100,7 +99,7 @@ public class AmpleSyrup {
                     pancakes[i] = new Pancake(scanner.nextInt(), scanner.nextInt());
                 }
                 double result = solve(stackSize, pancakes);
-                System.out.println("Case #" + testNumber + ": " + result);
+                out.printCase(testNumber).print(' ').println(result);
             }
         }
         System.err.println("AmpleSyrup done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2017.round1c;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Arrays;
-import java.util.Scanner;
 
 /**
  * Core Training problem from Round 1C of Code Jam 2017.
@@ -76,7 +75,7 @@ public class CoreTrainingSmall1 {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2017/round1c/C-small-practice-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int coreCount = scanner.nextInt();
@@ -85,7 +84,7 @@ public class CoreTrainingSmall1 {
                 double[] coreProbs = new double[coreCount];
                 for (int i = 0; i < coreCount; i++) coreProbs[i] = scanner.nextDouble();
                 double result = solve(trainingUnits, coreProbs);
-                System.out.println("Case #" + testNumber + ": " + result);
+                out.printCase(testNumber).print(' ').println(result);
             }
         }
         System.err.println("CoreTrainingSmall1 done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
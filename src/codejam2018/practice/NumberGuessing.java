@@ -25,10 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.practice;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.Scanner;
 
 /**
  * The Number Guessing problem from Google Code Jam Practice Session 2018.
@@ -48,7 +49,7 @@ public class NumberGuessing {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = false ? new FileInputStream("resources/codejam2018/practice/NumberGuessing-1.in") : System.in;
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int t = 1; t <= testCount; t++) {
                 int min = scanner.nextInt() + 1;
@@ -57,8 +58,8 @@ public class NumberGuessing {
                 boolean done = false;
                 for (int n = 1; n <= tryCount && !done; n++) {
                     int answer = min + (max - min) / 2;
-                    System.out.println(answer);
-                    System.out.flush();
+                    out.println(answer);
+                    out.flush();
                     String response = scanner.next();
                     switch (response) {
                         case "TOO_SMALL": min = answer + 1; break;
@@ -25,17 +25,14 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.practice;
 
+import codejam.common.CaseSolver;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
+import codejam.common.ParallelRunner;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * The Senate Evacuation problem from Google Code Jam Practice Session 2018.
@@ -53,13 +50,13 @@ import java.util.concurrent.Future;
  * algorithm do both the small and large datasets without problems.
  * 
  * I ended up using a thread pool to test my multi-threaded code template
- * with the new contest platform.
+ * with the new contest platform, now living in codejam.common.ParallelRunner.
  * 
  * @author Salvo Isaja
  */
-public class SenateEvacuationMT {
+public class SenateEvacuationMT implements CaseSolver<SenateEvacuationMT.Test, String> {
 
-    private static class Test implements Callable<String> {
+    static class Test {
 
         private final int testNumber;
         private final int[] partySenators;
@@ -69,8 +66,7 @@ public class SenateEvacuationMT {
             this.partySenators = partySenators;
         }
 
-        @Override
-        public String call() {
+        public String solve() {
             System.err.println("Case #" + testNumber + ", " + partySenators.length + " parties");
             StringBuilder result = new StringBuilder();
             int senatorCount = 0;
@@ -104,31 +100,42 @@ public class SenateEvacuationMT {
                     }
                 }
             }
-            return "Case #" + testNumber + ":" + result.toString();
+            return result.toString();
         }
     }
 
     private static final boolean DEBUG = false;
 
+    @Override
+    public Test parseCase(int testNumber, FastScanner scanner) {
+        int partyCount = scanner.nextInt();
+        int[] partySenators = new int[partyCount];
+        for (int i = 0; i < partyCount; i++) partySenators[i] = scanner.nextInt();
+        return new Test(testNumber, partySenators);
+    }
+
+    /** Each evacuation step looks for the biggest party. */
+    @Override
+    public long estimateCost(Test test) {
+        long senatorCount = 0;
+        for (int s : test.partySenators) senatorCount += s;
+        return senatorCount * test.partySenators.length;
+    }
+
+    @Override
+    public String solveCase(Test test) {
+        return test.solve();
+    }
+
+    @Override
+    public void printResult(int testNumber, String result, FastWriter out) {
+        out.printCase(testNumber).println(result);
+    }
+
     public static void main(String[] args) throws FileNotFoundException, InterruptedException, ExecutionException {
         long beginTime = System.nanoTime();
-        ExecutorService threadPool = Executors.newFixedThreadPool(DEBUG ? 1 : Runtime.getRuntime().availableProcessors());
-        List<Test> tests = new ArrayList<>();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/practice/SenateEvacuation-1.in") : System.in;
-        try (Scanner scanner = new Scanner(is)) {
-            int testCount = scanner.nextInt();
-            for (int testNumber = 1; testNumber <= testCount; testNumber++) {
-                int partyCount = scanner.nextInt();
-                int[] partySenators = new int[partyCount];
-                for (int i = 0; i < partyCount; i++) partySenators[i] = scanner.nextInt();
-                tests.add(new Test(testNumber, partySenators));
-            }
-        }
-        List<Future<String>> results = threadPool.invokeAll(tests);
-        for (Future<String> f : results) {
-            System.out.println(f.get());
-        }
-        threadPool.shutdown();
+        new ParallelRunner<>(new SenateEvacuationMT(), DEBUG ? 1 : Runtime.getRuntime().availableProcessors()).run(is, System.out);
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
     }
 }
\ No newline at end of file
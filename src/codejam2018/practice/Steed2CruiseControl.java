@@ -25,10 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.practice;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.Scanner;
 
 /**
  * The Steed 2: Cruise Control problem from Google Code Jam Practice Session 2018.
@@ -52,19 +53,19 @@ public class Steed2CruiseControl {
 
     private static final boolean DEBUG = false;
 
-    private static void solve(int testNumber, int destinationDistance, int[] horseBegins, int[] horseSpeeds) {
+    private static void solve(int testNumber, int destinationDistance, int[] horseBegins, int[] horseSpeeds, FastWriter out) {
         double minAnnieSpeed = Double.MAX_VALUE;
         for (int i = 0; i < horseBegins.length; i++) {
             double annieSpeed = (double) ((long) destinationDistance * horseSpeeds[i]) / (destinationDistance - horseBegins[i]);
             if (annieSpeed < minAnnieSpeed) minAnnieSpeed = annieSpeed;
         }
-        System.out.println("Case #" + testNumber + ": " + minAnnieSpeed);
+        out.printCase(testNumber).print(' ').println(minAnnieSpeed);
     }
 
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/practice/Steed2CruiseControl-1.in") : System.in;
-        try (Scanner scanner = new Scanner(is)) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int destinationDistance = scanner.nextInt();
@@ -75,7 +76,7 @@ public class Steed2CruiseControl {
                     horseBegins[i] = scanner.nextInt();
                     horseSpeeds[i] = scanner.nextInt();
                 }
-                solve(testNumber, destinationDistance, horseBegins, horseSpeeds);
+                solve(testNumber, destinationDistance, horseBegins, horseSpeeds, out);
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,14 +25,13 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * The Cubic UFO problem from Google Code Jam Qualification 2018.
@@ -253,13 +252,13 @@ public class CubicUfo {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/qualification/CubicUfo-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 double area = scanner.nextDouble();
                 Point3d[] centers = solve(area);
-                System.out.println("Case #" + testNumber + ":");
-                for (Point3d p : centers) System.out.println(p);
+                out.printCase(testNumber).println();
+                for (Point3d p : centers) out.println(p);
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,8 +25,9 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.qualification;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.util.BitSet;
-import java.util.Scanner;
 
 /**
  * The Go, Gopher! problem from Google Code Jam Qualification 2018.
@@ -48,7 +49,7 @@ public class GoGopher {
 
     public static void main(String[] args) {
         long beginTime = System.nanoTime();
-        try (Scanner scanner = new Scanner(System.in)) {
+        try (FastScanner scanner = new FastScanner(System.in); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int areaToPrepare = scanner.nextInt();
@@ -62,8 +63,8 @@ public class GoGopher {
                     }
                     if (x == 0) x = 1;
                     int y = 1;
-                    System.out.format("%d %d\n", x + X_OFFSET, y + Y_OFFSET);
-                    System.out.flush();
+                    out.print(x + X_OFFSET).print(' ').println(y + Y_OFFSET);
+                    out.flush();
                     x = scanner.nextInt();
                     y = scanner.nextInt();
                     if (x == 0 && y == 0) {
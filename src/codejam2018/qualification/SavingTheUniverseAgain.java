@@ -25,12 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.Scanner;
 
 /**
  * The Saving The Universe Again problem from Google Code Jam Qualification 2018.
@@ -89,13 +88,13 @@ public class SavingTheUniverseAgain {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/qualification/SavingTheUniverseAgain-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int maxAllowedDamage = scanner.nextInt();
                 String program = scanner.next();
                 int swapCount = solve(maxAllowedDamage, program);
-                System.out.println("Case #" + testNumber + ": " + (swapCount >= 0 ? swapCount : "IMPOSSIBLE"));
+                out.printCase(testNumber).print(' ').println(swapCount >= 0 ? swapCount : "IMPOSSIBLE");
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Arrays;
-import java.util.Scanner;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -72,14 +71,14 @@ public class TroubleSortLarge {
     public static void main(String[] args) throws FileNotFoundException, InterruptedException, ExecutionException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/qualification/TroubleSort-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int valueCount = scanner.nextInt();
                 int[] values = new int[valueCount];
                 for (int i = 0; i < valueCount; i++) values[i] = scanner.nextInt();
                 int result = solve(values);
-                System.out.println("Case #" + testNumber + ": " + (result >= 0 ? result : "OK"));
+                out.printCase(testNumber).print(' ').println(result >= 0 ? result : "OK");
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,19 +25,14 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.CaseSolver;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
+import codejam.common.ParallelRunner;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * The Trouble Sort problem from Google Code Jam Qualification 2018.
@@ -52,9 +47,9 @@ import java.util.concurrent.Future;
  * 
  * @author Salvo Isaja
  */
-public class TroubleSortSmallMT {
+public class TroubleSortSmallMT implements CaseSolver<TroubleSortSmallMT.Test, Integer> {
 
-    private static class Test implements Callable<String> {
+    static class Test {
 
         private final int testNumber;
         private final int[] values;
@@ -84,35 +79,44 @@ public class TroubleSortSmallMT {
             return -1;
         }
 
-        @Override
-        public String call() {
+        public int solve() {
             //System.err.println("Case #" + testNumber + ", " + values.length + " values, heap size=" + Runtime.getRuntime().totalMemory());
-            int result = solveBruteForce(values);
-            return "Case #" + testNumber + ": " + (result >= 0 ? result : "OK");
+            return solveBruteForce(values);
         }
     }
 
     private static final boolean DEBUG = true;
 
+    @Override
+    public Test parseCase(int testNumber, FastScanner scanner) {
+        int valueCount = scanner.nextInt();
+        int[] values = new int[valueCount];
+        for (int i = 0; i < valueCount; i++) values[i] = scanner.nextInt();
+        return new Test(testNumber, values);
+    }
+
+    /** The brute force does up to n passes over n values. */
+    @Override
+    public long estimateCost(Test test) {
+        long n = test.values.length;
+        return n * n;
+    }
+
+    @Override
+    public Integer solveCase(Test test) {
+        return test.solve();
+    }
+
+    @Override
+    public void printResult(int testNumber, Integer result, FastWriter out) {
+        out.printCase(testNumber).print(' ');
+        if (result >= 0) out.println(result); else out.println("OK");
+    }
+
     public static void main(String[] args) throws FileNotFoundException, InterruptedException, ExecutionException {
         long beginTime = System.nanoTime();
-        ExecutorService threadPool = Executors.newFixedThreadPool(DEBUG ? 1 : Runtime.getRuntime().availableProcessors());
-        List<Test> tests = new ArrayList<>();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/qualification/TroubleSort-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
-            int testCount = scanner.nextInt();
-            for (int testNumber = 1; testNumber <= testCount; testNumber++) {
-                int valueCount = scanner.nextInt();
-                int[] values = new int[valueCount];
-                for (int i = 0; i < valueCount; i++) values[i] = scanner.nextInt();
-                tests.add(new Test(testNumber, values));
-            }
-        }
-        List<Future<String>> results = threadPool.invokeAll(tests);
-        for (Future<String> f : results) {
-            System.out.println(f.get());
-        }
-        threadPool.shutdown();
+        new ParallelRunner<>(new TroubleSortSmallMT(), DEBUG ? 1 : Runtime.getRuntime().availableProcessors()).run(is, System.out);
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
     }
 }
\ No newline at end of file
@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.round1a;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Arrays;
-import java.util.Scanner;
 
 /**
  * The Bit Party problem from Google Code Jam Round 1A 2018.
@@ -62,7 +61,7 @@ import java.util.Scanner;
  */
 public class BitParty {
 
-    private static final class Cashier {
+    static final class Cashier {
         final int maxBitCount;
         final int bitScanSeconds;
         final int paymentSeconds;
@@ -98,7 +97,7 @@ public class BitParty {
         return bitCount == 0;
     }
 
-    private static long solve(int robotCount, int bitCount, Cashier[] cashiers) {
+    static long solve(int robotCount, int bitCount, Cashier[] cashiers) {
         long from = 0;
         long to = (1L << 60) + (1L << 30); // the maximum possible time ever
         while (from < to) {
@@ -116,7 +115,7 @@ public class BitParty {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/round1a/BitParty-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int robotCount = scanner.nextInt();
@@ -127,7 +126,7 @@ public class BitParty {
                     cashiers[i] = new Cashier(scanner.nextInt(), scanner.nextInt(), scanner.nextInt());
                 }
                 long result = solve(robotCount, bitCount, cashiers);
-                System.out.println("Case #" + testNumber + ": " + result);
+                out.printCase(testNumber).print(' ').println(result);
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
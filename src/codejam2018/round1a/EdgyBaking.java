@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.round1a;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.BitSet;
-import java.util.Scanner;
 
 /**
  * The Edgy Baking problem from Google Code Jam Round 1A 2018.
@@ -79,7 +78,7 @@ import java.util.Scanner;
 public class EdgyBaking {
 
     private static final boolean DEBUG = true;
-    private static final int MAX_POSSIBLE_PERIMETER = 100 * (4 * 250 + 2 * 354);
+    static final int MAX_POSSIBLE_PERIMETER = 100 * (4 * 250 + 2 * 354);
 
     /** Creates and prints a large random test set. */
     private static void createTests(int testCount) {
@@ -105,7 +104,7 @@ public class EdgyBaking {
     }
 
     /** Solves the 0-1 knapsack problem by dynamic programming. */
-    private static double[][] knapsack(int capacity, int[] weights, double[] values) {
+    static double[][] knapsack(int capacity, int[] weights, double[] values) {
         assert weights.length == values.length;
         double dp[][] = new double[weights.length + 1][capacity + 1];
         for (int i = 0; i < weights.length; i++) {
@@ -176,7 +175,7 @@ public class EdgyBaking {
         }
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/round1a/EdgyBaking-2.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int cookieCount = scanner.nextInt();
@@ -195,7 +194,7 @@ public class EdgyBaking {
                     }
                 }
                 double result = solve(targetPerimeter, widths, heights);
-                System.out.println("Case #" + testNumber + ": " + result);
+                out.printCase(testNumber).print(' ').println(result);
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
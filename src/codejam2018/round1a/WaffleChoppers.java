@@ -25,14 +25,13 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.round1a;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * The Waffle Choppers problem from Google Code Jam Round 1A 2018.
@@ -118,7 +117,7 @@ public class WaffleChoppers {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/round1a/WaffleChoppers-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int rowCount = scanner.nextInt();
@@ -131,7 +130,7 @@ public class WaffleChoppers {
                     for (int x = 0; x < columnCount; x++) cells[y][x] = s.charAt(x) == '@';
                 }
                 boolean result = solve(cells, horizontalCutCount, verticalCutCount);
-                System.out.println("Case #" + testNumber + ": " + (result ? "POSSIBLE" : "IMPOSSIBLE"));
+                out.printCase(testNumber).print(' ').println(result ? "POSSIBLE" : "IMPOSSIBLE");
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
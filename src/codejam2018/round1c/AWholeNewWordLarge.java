@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.round1c;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.HashSet;
-import java.util.Scanner;
 import java.util.Set;
 
 /**
@@ -95,7 +94,7 @@ public class AWholeNewWordLarge {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/round1c/AWholeNewWord-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int wordCount = scanner.nextInt();
@@ -104,7 +103,7 @@ public class AWholeNewWordLarge {
                 for (int i = 0; i < wordCount; i++) words.add(scanner.next());
                 AWholeNewWordLarge awnw = new AWholeNewWordLarge(length, words);
                 String result = awnw.solve();
-                System.out.println("Case #" + testNumber + ": " + (result != null ? result : "-"));
+                out.printCase(testNumber).print(' ').println(result != null ? result : "-");
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
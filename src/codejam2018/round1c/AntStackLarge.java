@@ -25,12 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.round1c;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.Scanner;
 
 /**
  * Ant Stack problem from Google Code Jam Round 1A 2018.
@@ -61,7 +60,7 @@ public class AntStackLarge {
     private static final boolean DEBUG = true;
     private static final int MAX_ANTS = 139;
 
-    private static int solve(int[] weights) {
+    static int solve(int[] weights) {
         // Initialize the dp array
         long dp[][] = new long[weights.length + 1][MAX_ANTS + 1];
         for (int i = 0; i <= weights.length; i++) {
@@ -98,14 +97,14 @@ public class AntStackLarge {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2018/round1c/AntStack-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int antCount = scanner.nextInt();
                 int[] weights = new int[antCount];
                 for (int i = 0; i < antCount; i++) weights[i] = scanner.nextInt();
                 int maxStackSize = solve(weights);
-                System.out.println("Case #" + testNumber + ": " + maxStackSize);
+                out.printCase(testNumber).print(' ').println(maxStackSize);
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,8 +25,9 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2018.round1c;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.util.BitSet;
-import java.util.Scanner;
 
 /**
  * Lollipop Shop problem from Google Code Jam Round 1C 2018.
@@ -45,7 +46,7 @@ public class LollipopShop {
 
     public static void main(String[] args) {
         long beginTime = System.nanoTime();
-        try (Scanner scanner = new Scanner(System.in)) {
+        try (FastScanner scanner = new FastScanner(System.in); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             boolean wrong = false;
             for (int testNumber = 1; testNumber <= testCount && !wrong; testNumber++) {
@@ -76,8 +77,8 @@ public class LollipopShop {
                         }
                     }
                     if (sold >= 0) lollipops.set(sold);
-                    System.out.println(sold);
-                    System.out.flush();
+                    out.println(sold);
+                    out.flush();
                 }
             }
             if (wrong) {
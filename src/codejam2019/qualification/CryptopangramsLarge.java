@@ -25,18 +25,17 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2019.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -177,7 +176,7 @@ public class CryptopangramsLarge {
         long beginTime = System.nanoTime();
         //for (int testNumber = 1; testNumber <= 100; testNumber++) testCase(testNumber);
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2019/qualification/Cryptopangrams-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 BigInteger maxPrime = scanner.nextBigInteger();
@@ -187,7 +186,7 @@ public class CryptopangramsLarge {
                     seq[i] = scanner.nextBigInteger();
                 }
                 String result = solve(maxPrime, seq);
-                System.out.println("Case #" + testNumber + ": " + result);
+                out.printCase(testNumber).print(' ').println(result);
             }
         }
         System.err.println("Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,12 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2019.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.Scanner;
 
 /**
  * The Foregone Solution problem from Google Code Jam Qualification 2019.
@@ -80,12 +79,12 @@ public class ForegoneSolution {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2019/qualification/ForegoneSolution-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 String input = scanner.next();
                 Pair result = solve(input);
-                System.out.println("Case #" + testNumber + ": " + result.item1 + " " + result.item2);
+                out.printCase(testNumber).print(' ').print(result.item1).print(' ').println(result.item2);
             }
         }
         System.err.println("Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
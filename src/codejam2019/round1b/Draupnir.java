@@ -25,7 +25,8 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2019.round1b;
 
-import java.util.Scanner;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -89,19 +90,20 @@ public class Draupnir {
     public static void main(String[] args) {
         long beginTime = System.nanoTime();
         //test();
-        try (Scanner scanner = new Scanner(System.in)) {
+        try (FastScanner scanner = new FastScanner(System.in); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             int wellCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
-                System.out.println(210);
-                System.out.flush();
+                out.println(210);
+                out.flush();
                 long wLow = scanner.nextLong();
-                System.out.println(48);
-                System.out.flush();
+                out.println(48);
+                out.flush();
                 long wHigh = scanner.nextLong();
                 int[] rings = solve(wLow, wHigh);
-                System.out.printf("%d %d %d %d %d %d\n", rings[0], rings[1], rings[2], rings[3], rings[4], rings[5]);
-                System.out.flush();
+                for (int i = 0; i < rings.length; i++) out.print(i > 0 ? " " : "").print(rings[i]);
+                out.println();
+                out.flush();
                 int verdict = scanner.nextInt();
                 if (verdict > 0) {
                     System.err.println("Correct");
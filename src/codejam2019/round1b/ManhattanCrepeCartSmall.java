@@ -25,12 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2019.round1b;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.Scanner;
 
 /**
  * The Manhattan Crepe Cart problem from Google Code Jam Round-1B 2019.
@@ -89,7 +88,7 @@ public class ManhattanCrepeCartSmall {
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2019/round1b/ManhattanCrepeCart-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int peopleCount = scanner.nextInt();
@@ -100,10 +99,10 @@ public class ManhattanCrepeCartSmall {
                 for (int p = 0; p < peopleCount; p++) {
                     xs[p] = scanner.nextInt();
                     ys[p] = scanner.nextInt();
-                    dirs[p] = scanner.next().charAt(0);
+                    dirs[p] = scanner.nextChar();
                 }
                 Pair result = solve(xs, ys, dirs, maxCoord);
-                System.out.println("Case #" + testNumber + ": " + result.item1 + " " + result.item2);
+                out.printCase(testNumber).print(' ').print(result.item1).print(' ').println(result.item2);
             }
         }
         System.err.println("Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,8 +25,9 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2020.qualification;
 
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.util.BitSet;
-import java.util.Scanner;
 
 /**
  * The ESAb ATAd problem from Google Code Jam Qualification 2020.
@@ -78,13 +79,13 @@ public class EsabAtad {
         return result;
     }
     
-    private static boolean readBit(Scanner scanner, int bitIndex) {
-        System.out.println(bitIndex + 1);
-        System.out.flush();
-        return scanner.next().charAt(0) == '1';
+    private static boolean readBit(FastScanner scanner, FastWriter out, int bitIndex) {
+        out.println(bitIndex + 1);
+        out.flush();
+        return scanner.nextChar() == '1';
     }
 
-    private static boolean runTest(int bitCount, Scanner scanner) {
+    private static boolean runTest(int bitCount, FastScanner scanner, FastWriter out) {
         BitSet bitset = new BitSet(bitCount);
         int oppositeBitIndex = -1;
         int specularBitIndex = -1;
@@ -95,16 +96,16 @@ public class EsabAtad {
                 boolean oppositeChanged = false;
                 boolean specularChanged = false;
                 if (oppositeBitIndex >= 0) {
-                    boolean bit = readBit(scanner, oppositeBitIndex);
+                    boolean bit = readBit(scanner, out, oppositeBitIndex);
                     oppositeChanged = bit != bitset.get(oppositeBitIndex);
                 } else {
-                    readBit(scanner, 0);
+                    readBit(scanner, out, 0);
                 }
                 if (specularBitIndex >= 0) {
-                    boolean bit = readBit(scanner, specularBitIndex);
+                    boolean bit = readBit(scanner, out, specularBitIndex);
                     specularChanged = bit != bitset.get(specularBitIndex);
                 } else {
-                    readBit(scanner, 0);
+                    readBit(scanner, out, 0);
                 }
                 if (oppositeChanged && !specularChanged) {
                     bitset = reverse(bitset, bitCount);
@@ -114,8 +115,8 @@ public class EsabAtad {
                     bitset = flip(bitset, bitCount);
                 }
             } else {
-                boolean leftBit = readBit(scanner, bitIndex);
-                boolean rightBit = readBit(scanner, bitCount - bitIndex - 1);
+                boolean leftBit = readBit(scanner, out, bitIndex);
+                boolean rightBit = readBit(scanner, out, bitCount - bitIndex - 1);
                 if (leftBit != rightBit && oppositeBitIndex < 0)
                     oppositeBitIndex = bitIndex;
                 if (leftBit == rightBit && specularBitIndex < 0)
@@ -127,9 +128,9 @@ public class EsabAtad {
             queryIndex += 2;
         }
         String stringResult = stringify(bitset, bitCount);
-        System.out.println(stringResult);
-        System.out.flush();
-        char response = scanner.next().charAt(0);
+        out.println(stringResult);
+        out.flush();
+        char response = scanner.nextChar();
         if (response == 'Y') {
             System.err.println("Correct: " + stringResult);
             return true;
@@ -141,11 +142,11 @@ public class EsabAtad {
         
     public static void main(String[] args) {
         long beginTime = System.nanoTime();
-        try (Scanner scanner = new Scanner(System.in)) {
+        try (FastScanner scanner = new FastScanner(System.in); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             int bitCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
-                if (!runTest(bitCount, scanner)) break;
+                if (!runTest(bitCount, scanner, out)) break;
             }
         }
         System.err.println( "Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
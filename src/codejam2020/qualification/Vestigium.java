@@ -25,13 +25,12 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2020.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.BitSet;
-import java.util.Scanner;
 
 /**
  * The Vestigium problem from Google Code Jam Qualification 2020.
@@ -47,7 +46,7 @@ public class Vestigium {
 
     private static final boolean DEBUG = true;
     
-    private static void solve(int testNumber, int[][] matrix) {
+    private static void solve(int testNumber, int[][] matrix, FastWriter out) {
         int trace = 0;
         for (int i = 0; i < matrix.length; i++) {
             trace += matrix[i][i];
@@ -76,13 +75,13 @@ public class Vestigium {
                 numbersPresent.set(v);
             }
         }
-        System.out.println("Case #" + testNumber + ": " + trace + " " + dupRowCount + " " + dupColumnCount);
+        out.printCase(testNumber).print(' ').print(trace).print(' ').print(dupRowCount).print(' ').println(dupColumnCount);
     }
 
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2020/qualification/Vestigium-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int rowCount = scanner.nextInt();
@@ -92,7 +91,7 @@ public class Vestigium {
                         matrix[i][j] = scanner.nextInt();
                     }
                 }
-                solve(testNumber, matrix);
+                solve(testNumber, matrix, out);
             }
         }
         System.err.println("Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
@@ -25,12 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2021.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.Scanner;
 
 /**
  * The Reversort problem from Google Code Jam Qualification 2021.
@@ -60,7 +59,7 @@ public class Reversort {
         }
     }
     
-    private static void solve(int testNumber, int[] elements) {
+    private static void solve(int testNumber, int[] elements, FastWriter out) {
         int cost = 0;
         for (int i = 0; i < elements.length - 1; i++) {
             int j = findMinIndex(elements, i, elements.length);
@@ -68,20 +67,20 @@ public class Reversort {
             reverse(elements, i, reverseCount);
             cost += reverseCount;
         }
-        System.out.println("Case #" + testNumber + ": " + cost);
+        out.printCase(testNumber).print(' ').println(cost);
     }
 
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2021/qualification/ReversortEngineering-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int elementCount = scanner.nextInt();
                 int[] elements = new int[elementCount];
                 for (int i = 0; i < elementCount; i++)
                     elements[i] = scanner.nextInt();
-                solve(testNumber, elements);
+                solve(testNumber, elements, out);
             }
         }
         System.err.println("Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");
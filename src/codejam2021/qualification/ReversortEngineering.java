@@ -25,12 +25,11 @@ THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package codejam2021.qualification;
 
-import java.io.BufferedReader;
+import codejam.common.FastScanner;
+import codejam.common.FastWriter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.Scanner;
 
 /**
  * The Reversort Engineering problem from Google Code Jam Qualification 2021.
@@ -108,9 +107,9 @@ public class ReversortEngineering {
         return elementList.toString();
     }
     
-    private static void solve(int testNumber, int elementCount, int expectedCost) {
+    private static void solve(int testNumber, int elementCount, int expectedCost, FastWriter out) {
         if (expectedCost < elementCount - 1 || expectedCost > (elementCount * (elementCount + 1) / 2 - 1)) {
-            System.out.println("Case #" + testNumber + ": IMPOSSIBLE");
+            out.printCase(testNumber).println(" IMPOSSIBLE");
             return;
         }
         int[] reverseCounts = calculateReverseCounts(elementCount, expectedCost);
@@ -122,20 +121,20 @@ public class ReversortEngineering {
         String elementList = elementsToString(elements);
         if (DEBUG) {
             int actualCost = computeCost(elements);
-            System.out.println(elementList + " costs " + actualCost + ", expected " + expectedCost);
+            out.print(elementList).print(" costs ").print(actualCost).print(", expected ").println(expectedCost);
         }
-        System.out.println("Case #" + testNumber + ": " + elementList);
+        out.printCase(testNumber).print(' ').println(elementList);
     }
 
     public static void main(String[] args) throws FileNotFoundException {
         long beginTime = System.nanoTime();
         InputStream is = DEBUG ? new FileInputStream("resources/codejam2021/qualification/ReversortEngineering-1.in") : System.in;
-        try (Scanner scanner = new Scanner(new BufferedReader(new InputStreamReader(is)))) {
+        try (FastScanner scanner = new FastScanner(is); FastWriter out = new FastWriter(System.out)) {
             int testCount = scanner.nextInt();
             for (int testNumber = 1; testNumber <= testCount; testNumber++) {
                 int elementCount = scanner.nextInt();
                 int expectedCost = scanner.nextInt();
-                solve(testNumber, elementCount, expectedCost);
+                solve(testNumber, elementCount, expectedCost, out);
             }
         }
         System.err.println("Done in " + ((System.nanoTime() - beginTime) / 1e9) + " seconds.");